@@ -2,8 +2,13 @@ package com.bun.hardcorerevival;
 
 import com.bun.hardcorerevival.commands.RevivalCommand;
 import com.bun.hardcorerevival.corpse.CorpseManager;
+import com.bun.hardcorerevival.listeners.BlockChangeListener;
 import com.bun.hardcorerevival.listeners.DeathListener;
 import com.bun.hardcorerevival.listeners.ReviveListener;
+import com.bun.hardcorerevival.listeners.SkinCaptureListener;
+import com.bun.hardcorerevival.listeners.VisibilityListener;
+import com.bun.hardcorerevival.listeners.WorldListener;
+import com.bun.hardcorerevival.util.SkinFetcher;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class HardcoreRevival extends JavaPlugin {
@@ -19,14 +24,19 @@ public class HardcoreRevival extends JavaPlugin {
         // Save default config
         saveDefaultConfig();
 
-        // Initialize corpse manager (loads existing corpses from JSON)
+        // Initialize corpse manager (loads corpses of the loaded worlds)
         corpseManager = new CorpseManager(this);
         corpseManager.loadCorpses();
 
         // Register event listeners
         deathListener = new DeathListener(this);
         getServer().getPluginManager().registerEvents(deathListener, this);
+        corpseManager.setExpiryListener(deathListener::onCorpseExpired);
         getServer().getPluginManager().registerEvents(new ReviveListener(this), this);
+        getServer().getPluginManager().registerEvents(new WorldListener(this), this);
+        getServer().getPluginManager().registerEvents(new VisibilityListener(this), this);
+        getServer().getPluginManager().registerEvents(new BlockChangeListener(this), this);
+        getServer().getPluginManager().registerEvents(new SkinCaptureListener(this), this);
 
         // Register commands
         getCommand("revival").setExecutor(new RevivalCommand(this));
@@ -36,11 +46,12 @@ public class HardcoreRevival extends JavaPlugin {
 
     @Override
     public void onDisable() {
-        // Save and clean up corpses
+        // Clean up corpses and flush pending saves (bounded wait)
         if (corpseManager != null) {
-            corpseManager.saveCorpses();
             corpseManager.removeAllCorpseNPCs();
+            corpseManager.shutdown();
         }
+        SkinFetcher.shutdown();
 
         getLogger().info("HardcoreRevival disabled!");
     }
@@ -62,8 +73,7 @@ public class HardcoreRevival extends JavaPlugin {
      */
     public void reload() {
         reloadConfig();
-        corpseManager.saveCorpses();
-        corpseManager.loadCorpses();
+        corpseManager.reload();
         getLogger().info("Configuration reloaded!");
     }
 }
@@ -3,9 +3,11 @@ package com.bun.hardcorerevival.commands;
 import com.bun.hardcorerevival.HardcoreRevival;
 import com.bun.hardcorerevival.corpse.Corpse;
 import com.bun.hardcorerevival.corpse.CorpseManager;
+import com.bun.hardcorerevival.storage.CorpseQuery;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -13,6 +15,7 @@ import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -46,7 +49,14 @@ public class RevivalCommand implements CommandExecutor, TabCompleter {
                 plugin.reload();
                 sender.sendMessage(ChatColor.GREEN + "HardcoreRevival configuration reloaded!");
             }
-            case "list" -> listCorpses(sender);
+            case "list" -> listCorpses(sender, args);
+            case "near" -> {
+                if (!(sender instanceof Player player)) {
+                    sender.sendMessage(ChatColor.RED + "Only players can use this command.");
+                    return true;
+                }
+                nearCorpses(player, args);
+            }
             case "remove" -> {
                 if (args.length < 2) {
                     sender.sendMessage(ChatColor.RED + "Usage: /revival remove <player>");
@@ -81,15 +91,36 @@ public class RevivalCommand implements CommandExecutor, TabCompleter {
     private void sendHelp(CommandSender sender) {
         sender.sendMessage(ChatColor.GOLD + "=== HardcoreRevival Commands ===");
         sender.sendMessage(ChatColor.YELLOW + "/revival reload " + ChatColor.GRAY + "- Reload configuration");
-        sender.sendMessage(ChatColor.YELLOW + "/revival list " + ChatColor.GRAY + "- List all corpses");
+        sender.sendMessage(ChatColor.YELLOW + "/revival list [world] [older-than] " + ChatColor.GRAY + "- List corpses (e.g. world 3d)");
+        sender.sendMessage(ChatColor.YELLOW + "/revival near [count] [radius] " + ChatColor.GRAY + "- Show the closest corpses");
         sender.sendMessage(ChatColor.YELLOW + "/revival remove <player> " + ChatColor.GRAY + "- Remove a corpse");
         sender.sendMessage(ChatColor.YELLOW + "/revival tp <player> " + ChatColor.GRAY + "- Teleport to a corpse");
         sender.sendMessage(ChatColor.YELLOW + "/revival revive <player> " + ChatColor.GRAY + "- Force revive a player");
     }
 
-    private void listCorpses(CommandSender sender) {
-        var corpses = corpseManager.getAllCorpses();
-        
+    private void listCorpses(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            // Through the store too, so corpses in unloaded worlds are listed
+            corpseManager.findCorpses(new CorpseQuery(null, null, 0), corpses -> sendCorpseList(sender, corpses));
+            return;
+        }
+
+        // Filtered listing: /revival list <world|*> [older-than]
+        String world = args[1].equals("*") ? null : args[1];
+        long diedBefore = 0;
+        if (args.length >= 3) {
+            long age = parseDuration(args[2]);
+            if (age < 0) {
+                sender.sendMessage(ChatColor.RED + "Invalid age: " + args[2] + " (use e.g. 30m, 12h or 3d)");
+                return;
+            }
+            diedBefore = System.currentTimeMillis() - age;
+        }
+
+        corpseManager.findCorpses(new CorpseQuery(world, null, diedBefore), corpses -> sendCorpseList(sender, corpses));
+    }
+
+    private void sendCorpseList(CommandSender sender, Collection<Corpse> corpses) {
         if (corpses.isEmpty()) {
             sender.sendMessage(ChatColor.YELLOW + "No corpses found.");
             return;
@@ -97,11 +128,8 @@ public class RevivalCommand implements CommandExecutor, TabCompleter {
 
         sender.sendMessage(ChatColor.GOLD + "=== Corpses (" + corpses.size() + ") ===");
         for (Corpse corpse : corpses) {
-            Location loc = corpse.getLocation();
-            String locStr = loc != null 
-                ? String.format("%s: %d, %d, %d", loc.getWorld().getName(), 
-                    loc.getBlockX(), loc.getBlockY(), loc.getBlockZ())
-                : "Unknown location";
+            String locStr = String.format("%s: %d, %d, %d", corpse.getWorldName(),
+                corpse.getBlockX(), corpse.getBlockY(), corpse.getBlockZ());
             
             long timeDead = (System.currentTimeMillis() - corpse.getDeathTime()) / 1000 / 60;
             
@@ -110,26 +138,82 @@ public class RevivalCommand implements CommandExecutor, TabCompleter {
         }
     }
 
-    private void removeCorpse(CommandSender sender, String playerName) {
-        // Find corpse by player name
-        Corpse target = null;
-        for (Corpse corpse : corpseManager.getAllCorpses()) {
-            if (corpse.getPlayerName().equalsIgnoreCase(playerName)) {
-                target = corpse;
-                break;
+    private void nearCorpses(Player player, String[] args) {
+        int count = 5;
+        double radius = 0;
+        try {
+            if (args.length >= 2) {
+                count = Integer.parseInt(args[1]);
+            }
+            if (args.length >= 3) {
+                radius = Double.parseDouble(args[2]);
             }
+        } catch (NumberFormatException e) {
+            player.sendMessage(ChatColor.RED + "Usage: /revival near [count] [radius]");
+            return;
+        }
+        if (count <= 0) {
+            player.sendMessage(ChatColor.RED + "Count must be at least 1.");
+            return;
         }
 
-        if (target == null) {
+        Location origin = player.getLocation();
+        List<Corpse> corpses = corpseManager.findNearestCorpses(origin, Math.min(count, 50), radius);
+        if (corpses.isEmpty()) {
+            player.sendMessage(ChatColor.YELLOW + "No corpses found nearby.");
+            return;
+        }
+
+        player.sendMessage(ChatColor.GOLD + "=== Nearest corpses (" + corpses.size() + ") ===");
+        for (Corpse corpse : corpses) {
+            long distance = Math.round(Math.sqrt(corpse.distanceSquared(origin.getX(), origin.getY(), origin.getZ())));
+
+            player.sendMessage(ChatColor.YELLOW + "- " + ChatColor.WHITE + corpse.getPlayerName()
+                + ChatColor.GRAY + String.format(" at %d, %d, %d (%d blocks)",
+                    corpse.getBlockX(), corpse.getBlockY(), corpse.getBlockZ(), distance));
+        }
+    }
+
+    /**
+     * Parse a duration like 30m, 12h or 3d into milliseconds (-1 if invalid)
+     */
+    private long parseDuration(String input) {
+        if (input.length() < 2) {
+            return -1;
+        }
+
+        long unit = switch (Character.toLowerCase(input.charAt(input.length() - 1))) {
+            case 'm' -> 60_000L;
+            case 'h' -> 3_600_000L;
+            case 'd' -> 86_400_000L;
+            default -> -1;
+        };
+        if (unit < 0) {
+            return -1;
+        }
+
+        try {
+            long amount = Long.parseLong(input.substring(0, input.length() - 1));
+            return amount >= 0 ? amount * unit : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void removeCorpse(CommandSender sender, String playerName) {
+        // Find corpse by player name, also in worlds that aren't loaded
+        UUID targetUuid = corpseManager.findCorpseOwner(playerName);
+        if (targetUuid == null) {
             sender.sendMessage(ChatColor.RED + "No corpse found for player: " + playerName);
             return;
         }
+        String targetName = corpseManager.getCorpseOwnerName(targetUuid);
 
-        corpseManager.removeCorpse(target.getPlayerUuid());
-        sender.sendMessage(ChatColor.GREEN + "Removed corpse for " + target.getPlayerName());
+        corpseManager.removeCorpse(targetUuid);
+        sender.sendMessage(ChatColor.GREEN + "Removed corpse for " + targetName);
 
         // If player is online and in spectator, put them back in survival
-        Player player = Bukkit.getPlayer(target.getPlayerUuid());
+        Player player = Bukkit.getPlayer(targetUuid);
         if (player != null && player.isOnline()) {
             player.setGameMode(org.bukkit.GameMode.SURVIVAL);
             player.sendMessage(ChatColor.GREEN + "Your corpse has been removed by an admin. You are now alive!");
@@ -137,16 +221,16 @@ public class RevivalCommand implements CommandExecutor, TabCompleter {
     }
 
     private void teleportToCorpse(Player player, String targetName) {
-        Corpse target = null;
-        for (Corpse corpse : corpseManager.getAllCorpses()) {
-            if (corpse.getPlayerName().equalsIgnoreCase(targetName)) {
-                target = corpse;
-                break;
-            }
+        UUID targetUuid = corpseManager.findCorpseOwner(targetName);
+        if (targetUuid == null) {
+            player.sendMessage(ChatColor.RED + "No corpse found for player: " + targetName);
+            return;
         }
 
+        Corpse target = corpseManager.getCorpse(targetUuid);
         if (target == null) {
-            player.sendMessage(ChatColor.RED + "No corpse found for player: " + targetName);
+            player.sendMessage(ChatColor.RED + corpseManager.getCorpseOwnerName(targetUuid) + "'s corpse is in world "
+                + corpseManager.getDormantCorpseWorld(targetUuid) + ", which isn't loaded.");
             return;
         }
 
@@ -161,21 +245,16 @@ public class RevivalCommand implements CommandExecutor, TabCompleter {
     }
 
     private void forceRevive(CommandSender sender, String playerName) {
-        Corpse target = null;
-        for (Corpse corpse : corpseManager.getAllCorpses()) {
-            if (corpse.getPlayerName().equalsIgnoreCase(playerName)) {
-                target = corpse;
-                break;
-            }
-        }
-
-        if (target == null) {
+        UUID deadUuid = corpseManager.findCorpseOwner(playerName);
+        if (deadUuid == null) {
             sender.sendMessage(ChatColor.RED + "No corpse found for player: " + playerName);
             return;
         }
+        String deadName = corpseManager.getCorpseOwnerName(deadUuid);
 
-        UUID deadUuid = target.getPlayerUuid();
-        Location reviveLocation = target.getLocation();
+        // A corpse in a world that isn't loaded has no location to revive at - revive in place
+        Corpse target = corpseManager.getCorpse(deadUuid);
+        Location reviveLocation = target != null ? target.getLocation() : null;
         
         // Remove the corpse
         corpseManager.removeCorpse(deadUuid);
@@ -192,7 +271,7 @@ public class RevivalCommand implements CommandExecutor, TabCompleter {
             deadPlayer.sendMessage(ChatColor.GREEN + "You have been revived by an admin!");
         }
 
-        sender.sendMessage(ChatColor.GREEN + "Force revived " + target.getPlayerName());
+        sender.sendMessage(ChatColor.GREEN + "Force revived " + deadName);
     }
 
     @Override
@@ -205,20 +284,35 @@ public class RevivalCommand implements CommandExecutor, TabCompleter {
 
         if (args.length == 1) {
             String partial = args[0].toLowerCase();
-            for (String sub : List.of("reload", "list", "remove", "tp", "revive")) {
+            for (String sub : List.of("reload", "list", "near", "remove", "tp", "revive")) {
                 if (sub.startsWith(partial)) {
                     completions.add(sub);
                 }
             }
         } else if (args.length == 2) {
             String subCommand = args[0].toLowerCase();
-            if (subCommand.equals("remove") || subCommand.equals("tp") || subCommand.equals("revive")) {
+            if (subCommand.equals("list")) {
+                String partial = args[1].toLowerCase();
+                for (World world : Bukkit.getWorlds()) {
+                    if (world.getName().toLowerCase().startsWith(partial)) {
+                        completions.add(world.getName());
+                    }
+                }
+            } else if (subCommand.equals("remove") || subCommand.equals("tp") || subCommand.equals("revive")) {
                 String partial = args[1].toLowerCase();
                 for (Corpse corpse : corpseManager.getAllCorpses()) {
                     if (corpse.getPlayerName().toLowerCase().startsWith(partial)) {
                         completions.add(corpse.getPlayerName());
                     }
                 }
+                // Corpses in unloaded worlds can be removed or revived, not visited
+                if (!subCommand.equals("tp")) {
+                    for (String name : corpseManager.getDormantCorpseOwnerNames()) {
+                        if (name.toLowerCase().startsWith(partial)) {
+                            completions.add(name);
+                        }
+                    }
+                }
             }
         }
 
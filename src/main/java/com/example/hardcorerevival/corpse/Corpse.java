@@ -4,6 +4,7 @@ import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
 
+import java.lang.ref.WeakReference;
 import java.util.UUID;
 
 /**
@@ -20,11 +21,22 @@ public class Corpse {
     private final float yaw;
     private final float pitch;
     private final long deathTime;
+    // Lies at its unsafe death spot until the safe spot search moves it
+    private final boolean pendingSearch;
     
-    // Runtime-only field, not saved to JSON
+    // Runtime-only fields, not saved to JSON
     private transient int entityId = -1;
+    // Resolved on first use; weak so an unloaded world can be collected
+    private transient volatile WeakReference<World> worldRef;
 
     public Corpse(UUID playerUuid, String playerName, Location location) {
+        this(playerUuid, playerName, location, false);
+    }
+
+    /**
+     * @param pendingSearch the location is unsafe and a safe spot search was started for it
+     */
+    public Corpse(UUID playerUuid, String playerName, Location location, boolean pendingSearch) {
         this.playerUuid = playerUuid;
         this.playerName = playerName;
         this.worldName = location.getWorld().getName();
@@ -34,6 +46,32 @@ public class Corpse {
         this.yaw = location.getYaw();
         this.pitch = location.getPitch();
         this.deathTime = System.currentTimeMillis();
+        this.pendingSearch = pendingSearch;
+    }
+
+    /**
+     * Restore a corpse from storage
+     */
+    public Corpse(UUID playerUuid, String playerName, String worldName,
+                  double x, double y, double z, float yaw, float pitch, long deathTime) {
+        this(playerUuid, playerName, worldName, x, y, z, yaw, pitch, deathTime, false);
+    }
+
+    /**
+     * Restore a corpse from storage, including whether its safe spot search was still pending
+     */
+    public Corpse(UUID playerUuid, String playerName, String worldName,
+                  double x, double y, double z, float yaw, float pitch, long deathTime, boolean pendingSearch) {
+        this.playerUuid = playerUuid;
+        this.playerName = playerName;
+        this.worldName = worldName;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.yaw = yaw;
+        this.pitch = pitch;
+        this.deathTime = deathTime;
+        this.pendingSearch = pendingSearch;
     }
 
     public UUID getPlayerUuid() {
@@ -44,22 +82,127 @@ public class Corpse {
         return playerName;
     }
 
+    /**
+     * A new Location of the corpse, or null if its world isn't loaded.
+     * Prefer the primitive accessors when only reading coordinates.
+     */
     public Location getLocation() {
-        World world = Bukkit.getWorld(worldName);
+        return getLocation(0);
+    }
+
+    /**
+     * A new Location {@code yOffset} blocks above the corpse (e.g. to put a spectator above it),
+     * or null if its world isn't loaded
+     */
+    public Location getLocation(double yOffset) {
+        World world = getWorld();
         if (world == null) {
             return null;
         }
-        return new Location(world, x, y, z, yaw, pitch);
+        return new Location(world, x, y + yOffset, z, yaw, pitch);
     }
 
     public String getWorldName() {
         return worldName;
     }
 
+    /**
+     * The corpse's world, looked up by name once and then cached
+     *
+     * @return null if the world isn't loaded
+     */
+    public World getWorld() {
+        WeakReference<World> ref = worldRef;
+        World world = ref != null ? ref.get() : null;
+        if (world == null) {
+            world = Bukkit.getWorld(worldName);
+            if (world != null) {
+                worldRef = new WeakReference<>(world);
+            }
+        }
+        return world;
+    }
+
+    /**
+     * Drop the cached world (it was unloaded)
+     */
+    public void forgetWorld() {
+        worldRef = null;
+    }
+
+    public boolean isInWorld(World world) {
+        return world != null && worldName.equals(world.getName());
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public int getBlockX() {
+        return (int) Math.floor(x);
+    }
+
+    public int getBlockY() {
+        return (int) Math.floor(y);
+    }
+
+    public int getBlockZ() {
+        return (int) Math.floor(z);
+    }
+
+    public int getChunkX() {
+        return getBlockX() >> 4;
+    }
+
+    public int getChunkZ() {
+        return getBlockZ() >> 4;
+    }
+
+    /**
+     * Squared distance to a position, ignoring worlds
+     */
+    public double distanceSquared(double otherX, double otherY, double otherZ) {
+        double dx = x - otherX;
+        double dy = y - otherY;
+        double dz = z - otherZ;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Whether a location is in the corpse's world and within {@code radius} blocks of it
+     */
+    public boolean isWithin(Location location, double radius) {
+        return isInWorld(location.getWorld())
+            && distanceSquared(location.getX(), location.getY(), location.getZ()) <= radius * radius;
+    }
+
+    public float getYaw() {
+        return yaw;
+    }
+
+    public float getPitch() {
+        return pitch;
+    }
+
     public long getDeathTime() {
         return deathTime;
     }
 
+    /**
+     * Whether this is a marker at an unsafe death spot that hasn't been moved to a safe spot yet
+     */
+    public boolean isPendingSearch() {
+        return pendingSearch;
+    }
+
     public int getEntityId() {
         return entityId;
     }
@@ -0,0 +1,64 @@
+package com.bun.hardcorerevival.corpse;
+
+import net.minecraft.network.syncher.EntityDataAccessor;
+import net.minecraft.network.syncher.EntityDataSerializers;
+import net.minecraft.network.syncher.SynchedEntityData;
+import net.minecraft.world.entity.Pose;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Corpse look settings, read from config once per load/reload instead of on every packet
+ */
+final class CorpseAppearance {
+
+    // Entity data slots of the base Entity class (shared flags and pose)
+    private static final EntityDataAccessor<Byte> SHARED_FLAGS = new EntityDataAccessor<>(0, EntityDataSerializers.BYTE);
+    private static final EntityDataAccessor<Pose> POSE = new EntityDataAccessor<>(6, EntityDataSerializers.POSE);
+
+    private final boolean useSwimmingPose;
+    private final boolean glowing;
+    private final List<SynchedEntityData.DataValue<?>> metadataValues;
+
+    CorpseAppearance(ConfigurationSection config) {
+        this.useSwimmingPose = config.getBoolean("corpse.use-swimming-pose", true);
+        this.glowing = config.getBoolean("corpse.glowing", false);
+
+        List<SynchedEntityData.DataValue<?>> values = new ArrayList<>(2);
+
+        // Entity flags (index 0) - set glowing if enabled
+        byte entityFlags = 0;
+        if (glowing) {
+            entityFlags |= 0x40; // Glowing flag
+        }
+        values.add(SynchedEntityData.DataValue.create(SHARED_FLAGS, entityFlags));
+
+        // Pose (index 6) - SWIMMING for horizontal position. Always sent, so a reload can switch it back
+        values.add(SynchedEntityData.DataValue.create(POSE, useSwimmingPose ? Pose.SWIMMING : Pose.STANDING));
+        this.metadataValues = List.copyOf(values);
+    }
+
+    boolean useSwimmingPose() {
+        return useSwimmingPose;
+    }
+
+    boolean glowing() {
+        return glowing;
+    }
+
+    /**
+     * Whether both produce the same metadata
+     */
+    boolean sameAs(CorpseAppearance other) {
+        return other != null && useSwimmingPose == other.useSwimmingPose && glowing == other.glowing;
+    }
+
+    /**
+     * Entity data values for the metadata packet
+     */
+    List<SynchedEntityData.DataValue<?>> metadataValues() {
+        return metadataValues;
+    }
+}
@@ -0,0 +1,175 @@
+package com.bun.hardcorerevival.corpse;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Primitive entity ID -> corpse index.
+ * Written by a single writer (see {@link CorpseRegistry}), read lock-free from ProtocolLib's Netty thread.
+ */
+final class CorpseEntityIndex {
+
+    // Fake entity IDs are handed out from here downward to avoid conflicts with real entities
+    static final int FIRST_ENTITY_ID = Integer.MAX_VALUE - 10000;
+
+    // Slot markers - 0 and -1 can never be allocated from our block
+    private static final int FREE = 0;
+    private static final int DELETED = -1;
+
+    private static final int MIN_CAPACITY = 64;
+
+    // Lowest ID handed out so far, anything outside (nextEntityId, FIRST_ENTITY_ID] is not ours
+    private static volatile int nextEntityId = FIRST_ENTITY_ID;
+
+    private volatile Table table = new Table(MIN_CAPACITY);
+
+    // Writer-side bookkeeping (single writer)
+    private int live;
+    private int used;
+
+    /**
+     * Allocate a fresh fake entity ID
+     */
+    int allocateId() {
+        return nextEntityId--;
+    }
+
+    /**
+     * Cheap range check against the allocated ID block, no map access
+     */
+    static boolean isCorpseEntityId(int entityId) {
+        return entityId <= FIRST_ENTITY_ID && entityId > nextEntityId;
+    }
+
+    /**
+     * Look up a corpse by entity ID (safe from any thread)
+     */
+    Corpse get(int entityId) {
+        if (!isCorpseEntityId(entityId)) {
+            return null;
+        }
+
+        Table t = table;
+        int mask = t.keys.length() - 1;
+        for (int i = mix(entityId) & mask; ; i = (i + 1) & mask) {
+            int key = t.keys.get(i);
+            if (key == FREE) {
+                return null;
+            }
+            if (key == entityId) {
+                return t.values.get(i);
+            }
+        }
+    }
+
+    /**
+     * Index a corpse under its entity ID (single writer)
+     */
+    void put(int entityId, Corpse corpse) {
+        if ((used + 1) * 2 > table.keys.length()) {
+            rehash();
+        }
+
+        Table t = table;
+        int mask = t.keys.length() - 1;
+        int reusable = -1;
+        for (int i = mix(entityId) & mask; ; i = (i + 1) & mask) {
+            int key = t.keys.get(i);
+            if (key == entityId) {
+                t.values.set(i, corpse);
+                return;
+            }
+            if (key == DELETED && reusable < 0) {
+                reusable = i;
+            } else if (key == FREE) {
+                int slot = reusable >= 0 ? reusable : i;
+                if (slot == i) {
+                    used++;
+                }
+                // Publish the value before the key so readers never see a key without its corpse
+                t.values.set(slot, corpse);
+                t.keys.set(slot, entityId);
+                live++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drop an entity ID from the index (single writer)
+     */
+    void remove(int entityId) {
+        if (!isCorpseEntityId(entityId)) {
+            return;
+        }
+
+        Table t = table;
+        int mask = t.keys.length() - 1;
+        for (int i = mix(entityId) & mask; ; i = (i + 1) & mask) {
+            int key = t.keys.get(i);
+            if (key == FREE) {
+                return;
+            }
+            if (key == entityId) {
+                t.keys.set(i, DELETED);
+                t.values.set(i, null);
+                live--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drop everything (single writer)
+     */
+    void clear() {
+        table = new Table(MIN_CAPACITY);
+        live = 0;
+        used = 0;
+    }
+
+    /**
+     * Rebuild into a fresh table sized for the live entries, dropping tombstones.
+     * Readers keep using the old table until the new one is published.
+     */
+    private void rehash() {
+        Table old = table;
+        int capacity = MIN_CAPACITY;
+        while (capacity < (live + 1) * 4) {
+            capacity <<= 1;
+        }
+
+        Table fresh = new Table(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < old.keys.length(); i++) {
+            int key = old.keys.get(i);
+            if (key == FREE || key == DELETED) continue;
+
+            int slot = mix(key) & mask;
+            while (fresh.keys.get(slot) != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            fresh.values.set(slot, old.values.get(i));
+            fresh.keys.set(slot, key);
+        }
+
+        used = live;
+        table = fresh;
+    }
+
+    private static int mix(int entityId) {
+        // IDs are sequential, spread them so neighbours don't cluster
+        int h = entityId * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Table {
+        final AtomicIntegerArray keys;
+        final AtomicReferenceArray<Corpse> values;
+
+        Table(int capacity) {
+            this.keys = new AtomicIntegerArray(capacity);
+            this.values = new AtomicReferenceArray<>(capacity);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.bun.hardcorerevival.corpse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Expiry schedule of corpses (corpse.expire-time), a min-heap on expiry time so each check
+ * only touches the corpses that are due. Untracked (revived, removed or replaced) corpses
+ * leave a dead entry in the heap; those are skipped when they come up, and the heap is
+ * rebuilt from the live entries once dead ones outnumber them.
+ *
+ * Main thread only.
+ */
+final class CorpseExpiry {
+
+    // Heaps smaller than this are never worth rebuilding
+    private static final int MIN_COMPACT_SIZE = 64;
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparingLong(Entry::expiresAt));
+    // The live entry of each player's current corpse
+    private final Map<UUID, Entry> live = new HashMap<>();
+
+    // <= 0 = corpses never expire
+    private long lifetimeMs;
+
+    /**
+     * Change the lifetime. If it changed the schedule is dropped and corpses have to be tracked again.
+     *
+     * @return whether the lifetime changed
+     */
+    boolean setLifetime(long lifetimeMs) {
+        if (lifetimeMs == this.lifetimeMs) {
+            return false;
+        }
+        this.lifetimeMs = lifetimeMs;
+        clear();
+        return true;
+    }
+
+    void clear() {
+        queue.clear();
+        live.clear();
+    }
+
+    /**
+     * Schedule a corpse, replacing any earlier corpse of the same player
+     */
+    void track(Corpse corpse) {
+        if (lifetimeMs <= 0) {
+            return;
+        }
+        Entry entry = new Entry(corpse.getDeathTime() + lifetimeMs, corpse);
+        live.put(corpse.getPlayerUuid(), entry);
+        queue.add(entry);
+        compactIfSparse();
+    }
+
+    /**
+     * Stop tracking a corpse that was revived, removed or unloaded
+     */
+    void untrack(Corpse corpse) {
+        Entry entry = live.get(corpse.getPlayerUuid());
+        if (entry != null && entry.corpse() == corpse) {
+            live.remove(corpse.getPlayerUuid());
+            compactIfSparse();
+        }
+    }
+
+    /**
+     * Take the corpses whose time is up
+     */
+    List<Corpse> pollExpired(long now) {
+        if (queue.isEmpty() || queue.peek().expiresAt() > now) {
+            return List.of();
+        }
+        List<Corpse> expired = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().expiresAt() <= now) {
+            Entry entry = queue.poll();
+            UUID playerUuid = entry.corpse().getPlayerUuid();
+            if (live.get(playerUuid) == entry) {
+                live.remove(playerUuid);
+                expired.add(entry.corpse());
+            }
+        }
+        return expired;
+    }
+
+    private void compactIfSparse() {
+        if (queue.size() > MIN_COMPACT_SIZE && queue.size() > 2 * live.size()) {
+            queue.clear();
+            queue.addAll(live.values());
+        }
+    }
+
+    private record Entry(long expiresAt, Corpse corpse) {
+    }
+}
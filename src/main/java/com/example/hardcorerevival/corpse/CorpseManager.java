@@ -1,22 +1,29 @@
 package com.bun.hardcorerevival.corpse;
 
-import com.comphenix.protocol.PacketType;
-import com.comphenix.protocol.ProtocolLibrary;
-import com.comphenix.protocol.ProtocolManager;
-import com.comphenix.protocol.events.PacketContainer;
-import com.comphenix.protocol.wrappers.EnumWrappers;
-import com.comphenix.protocol.wrappers.WrappedDataValue;
-import com.comphenix.protocol.wrappers.WrappedDataWatcher;
+import com.bun.hardcorerevival.storage.BinaryCorpseFile;
+import com.bun.hardcorerevival.storage.CorpsePersister;
+import com.bun.hardcorerevival.storage.CorpseQuery;
+import com.bun.hardcorerevival.storage.CorpseSnapshotFile;
+import com.bun.hardcorerevival.storage.CorpseStore;
+import com.bun.hardcorerevival.storage.FileCorpseStore;
+import com.bun.hardcorerevival.storage.JsonCorpseFile;
+import com.bun.hardcorerevival.storage.SqliteCorpseStore;
 import com.bun.hardcorerevival.util.SkinFetcher;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.bun.hardcorerevival.util.SkinStore;
+import com.destroystokyo.paper.profile.PlayerProfile;
+import com.destroystokyo.paper.profile.ProfileProperty;
 import com.mojang.authlib.GameProfile;
 import com.mojang.authlib.properties.Property;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntList;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
 import net.minecraft.network.protocol.game.ClientboundAddEntityPacket;
 import net.minecraft.network.protocol.game.ClientboundPlayerInfoRemovePacket;
 import net.minecraft.network.protocol.game.ClientboundPlayerInfoUpdatePacket;
-import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.phys.Vec3;
 import org.bukkit.*;
@@ -26,9 +33,13 @@ import org.bukkit.craftbukkit.entity.CraftPlayer;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.io.*;
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Manages player corpses - spawning NPCs, storage, and cleanup
@@ -36,322 +47,640 @@ import java.util.*;
 public class CorpseManager {
 
     private final JavaPlugin plugin;
-    private final ProtocolManager protocolManager;
-    private final Map<UUID, Corpse> corpses = new HashMap<>();
-    private final File dataFile;
-    private final Gson gson;
+    private final CorpseRegistry registry = new CorpseRegistry();
+    private final CorpseVisibility visibility = new CorpseVisibility(registry, this::showCorpses, this::queueDespawn);
+    private final ProfileRegistrations profileRegistrations = new ProfileRegistrations();
+    private final SafeSpotCache safeSpots = new SafeSpotCache();
+    private final CorpseExpiry expiry = new CorpseExpiry();
+    private final SkinStore skinStore;
+    private final DespawnBatcher despawnBatcher;
+    private final CorpseStore store;
+    private final CorpsePersister persister;
+
+    // Replaced on every (re)load, cached packets built with an older instance are rebuilt
+    private CorpseAppearance appearance;
+
+    // Handles the player of an expired corpse, set by the plugin
+    private Consumer<Corpse> expiryListener;
+
+    // How long onDisable/reload may wait for pending writes
+    private static final long FLUSH_TIMEOUT_MS = 5000;
+
+    // How often changed skins are written to skins.json (5 minutes)
+    private static final long SKIN_SAVE_INTERVAL_TICKS = 20L * 60 * 5;
 
-    // Track fake entity IDs we've used
-    private static int nextEntityId = Integer.MAX_VALUE - 10000;
-    
-    // Store the game profiles we create so we can remove them from tab later
-    private final Map<UUID, GameProfile> corpseProfiles = new HashMap<>();
 
     public CorpseManager(JavaPlugin plugin) {
         this.plugin = plugin;
-        this.protocolManager = ProtocolLibrary.getProtocolManager();
-        this.dataFile = new File(plugin.getDataFolder(), "corpses.json");
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
+        this.despawnBatcher = new DespawnBatcher(plugin, this::sendDespawnPacket);
+        this.skinStore = new SkinStore(plugin.getDataFolder().toPath().resolve("skins.json"), plugin.getLogger());
+        skinStore.load();
+        // Skins change rarely, a lazy background save is enough
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, skinStore::save, SKIN_SAVE_INTERVAL_TICKS, SKIN_SAVE_INTERVAL_TICKS);
+        Bukkit.getScheduler().runTaskTimer(plugin, this::expireCorpses, 20L, 20L);
+        this.store = createStore();
+        this.persister = new CorpsePersister(plugin.getLogger(), store, registry::residentSnapshot,
+            plugin.getConfig().getLong("storage.save-delay", 1000));
+    }
+
+    /**
+     * Pick the storage backend from config (storage.type and storage.format).
+     * File data is sharded per world under corpses/.
+     */
+    private CorpseStore createStore() {
+        Path dataFolder = plugin.getDataFolder().toPath();
+
+        String extension = ".json";
+        Function<Path, CorpseSnapshotFile> shardFormat = JsonCorpseFile::new;
+        String format = plugin.getConfig().getString("storage.format", "json").toLowerCase();
+        if (format.equals("binary")) {
+            // Each shard migrates its .json sibling automatically the first time it is read
+            extension = ".bin";
+            shardFormat = path -> {
+                String fileName = path.getFileName().toString();
+                Path jsonSibling = path.resolveSibling(fileName.substring(0, fileName.length() - 4) + ".json");
+                return new BinaryCorpseFile(path, new JsonCorpseFile(jsonSibling), plugin.getLogger());
+            };
+        } else if (!format.equals("json")) {
+            plugin.getLogger().warning("Unknown storage.format '" + format + "', using json");
+        }
+
+        String type = plugin.getConfig().getString("storage.type", "snapshot").toLowerCase();
+        if (!List.of("snapshot", "json", "journal", "sqlite").contains(type)) {
+            plugin.getLogger().warning("Unknown storage.type '" + type + "', using snapshot");
+            type = "snapshot";
+        }
+
+        // Pre-sharding single files are split up the first time the store is used
+        List<CorpseSnapshotFile> legacyFiles = List.of(
+            new BinaryCorpseFile(dataFolder.resolve("corpses.bin"), null, plugin.getLogger()),
+            new JsonCorpseFile(dataFolder.resolve("corpses.json")));
+
+        FileCorpseStore fileStore = new FileCorpseStore(dataFolder.resolve("corpses"), extension, shardFormat,
+            type.equals("journal"), plugin.getConfig().getInt("storage.journal-compact-after", 1000),
+            legacyFiles, dataFolder.resolve("corpses.journal"), plugin.getLogger());
+
+        if (type.equals("sqlite")) {
+            return new SqliteCorpseStore(dataFolder.resolve("corpses.db"), fileStore, plugin.getLogger());
+        }
+        return fileStore;
     }
 
     /**
-     * Create a corpse for a dead player
+     * Create a corpse for a dead player.
+     * If the death spot is unsafe (void, lava...) a spot recently found for the same chunk is
+     * reused; otherwise the corpse starts there as a marker and is moved once a safe spot has
+     * been found off the main thread.
      */
     public Corpse createCorpse(Player player, Location deathLocation) {
-        // Find safe location if death was in void/lava
-        Location safeLocation = findSafeLocation(deathLocation);
-        
-        // Create corpse data
-        Corpse corpse = new Corpse(player.getUniqueId(), player.getName(), safeLocation);
-        corpses.put(player.getUniqueId(), corpse);
+        int searchRadius = plugin.getConfig().getInt("safe-location-search-radius", 50);
+        boolean unsafe = !isSafeLocation(deathLocation);
+        Location cachedSpot = unsafe ? cachedSafeSpot(deathLocation, searchRadius) : null;
+
+        // Create corpse data; a marker remembers its pending search so a restart can resume it
+        boolean search = unsafe && cachedSpot == null;
+        Corpse corpse = new Corpse(player.getUniqueId(), player.getName(),
+            cachedSpot != null ? cachedSpot : deathLocation, search);
+        registry.put(corpse);
+        expiry.track(corpse);
         
         // Spawn the NPC for all online players
         spawnCorpseNPC(corpse, player);
         
-        // Save to disk
-        saveCorpses();
+        // Queue the save (written in the background)
+        persister.recordCreate(corpse);
+
+        if (search) {
+            searchSafeSpot(corpse, deathLocation.clone(), searchRadius);
+        }
         
         return corpse;
     }
 
+    /**
+     * Look for a safe spot around a marker corpse off the main thread, then move it there
+     */
+    private void searchSafeSpot(Corpse marker, Location death, int searchRadius) {
+        int readBudget = plugin.getConfig().getInt("safe-location-search-budget", 20000);
+        SafeLocationSearch.find(plugin, death, searchRadius, readBudget)
+            .thenAccept(safeLocation -> {
+                if (safeLocation != null) {
+                    safeSpots.put(death, safeLocation);
+                }
+                relocateCorpse(marker, safeLocation);
+            });
+    }
+
+    /**
+     * A stored corpse is still a marker at its unsafe death spot if the plugin was disabled
+     * before its search finished. Check its spot once its chunk is available (loaded
+     * asynchronously, never generated) and search again if needed. Corpses that were never
+     * markers or were already moved are skipped, so their chunks aren't loaded.
+     */
+    private void checkLoadedSpot(Corpse corpse) {
+        World world = corpse.getWorld();
+        if (world == null || !corpse.isPendingSearch()) {
+            return;
+        }
+        world.getChunkAtAsync(corpse.getChunkX(), corpse.getChunkZ(), false).thenAccept(chunk -> {
+            // Revived, removed or unloaded meanwhile
+            if (chunk == null || registry.get(corpse.getPlayerUuid()) != corpse) {
+                return;
+            }
+            Location spot = corpse.getLocation();
+            if (isSafeLocation(spot)) {
+                // Made safe meanwhile - settle it here so it isn't checked again
+                relocateCorpse(corpse, spot);
+            } else {
+                plugin.getLogger().info("Corpse of " + corpse.getPlayerName() + " was stored at an unsafe spot, searching again");
+                searchSafeSpot(corpse, spot, plugin.getConfig().getInt("safe-location-search-radius", 50));
+            }
+        });
+    }
+
+    /**
+     * A spot found for an earlier death in the same chunk, if it's still in range and safe.
+     * Only loaded chunks are checked, so this costs a couple of block reads.
+     */
+    private Location cachedSafeSpot(Location deathLocation, int searchRadius) {
+        Location spot = safeSpots.get(deathLocation);
+        if (spot == null) {
+            return null;
+        }
+        boolean usable = spot.distanceSquared(deathLocation) <= (double) searchRadius * searchRadius
+            && spot.getWorld().isChunkLoaded(spot.getBlockX() >> 4, spot.getBlockZ() >> 4)
+            && isSafeLocation(spot);
+        if (!usable) {
+            safeSpots.remove(deathLocation);
+            return null;
+        }
+        // Keep the way the player was facing
+        spot.setYaw(deathLocation.getYaw());
+        spot.setPitch(deathLocation.getPitch());
+        return spot;
+    }
+
+    /**
+     * A block changed - forget cached safe spots in its chunk
+     */
+    public void onBlockChanged(Block block) {
+        safeSpots.invalidateChunk(block.getWorld().getName(), block.getX() >> 4, block.getZ() >> 4);
+    }
+
+    /**
+     * Move a marker corpse to the spot the async search found (main thread)
+     */
+    private void relocateCorpse(Corpse marker, Location safeLocation) {
+        // Revived, removed or replaced by a newer death while we were searching
+        if (registry.get(marker.getPlayerUuid()) != marker) {
+            return;
+        }
+
+        World world = marker.getWorld();
+        if (world == null) {
+            return;
+        }
+        if (safeLocation == null) {
+            // Last resort: spawn at world spawn
+            plugin.getLogger().warning("Could not find safe location for corpse, using world spawn");
+            safeLocation = world.getSpawnLocation();
+        }
+
+        Corpse corpse = new Corpse(marker.getPlayerUuid(), marker.getPlayerName(), safeLocation.getWorld().getName(),
+            safeLocation.getX(), safeLocation.getY(), safeLocation.getZ(),
+            safeLocation.getYaw(), safeLocation.getPitch(), marker.getDeathTime());
+
+        despawnCorpseNPC(marker);
+        registry.put(corpse);
+        expiry.track(corpse);
+        // The profile (and skin) of the marker is kept, only the entity is respawned
+        registry.assignEntityId(corpse);
+        visibility.showToAll(corpse);
+        persister.recordCreate(corpse);
+
+        plugin.getLogger().info("Moved corpse of " + corpse.getPlayerName() + " to a safe spot at " +
+            safeLocation.getBlockX() + ", " + safeLocation.getBlockY() + ", " + safeLocation.getBlockZ());
+    }
+
     /**
      * Remove a corpse (when player is revived or manually removed)
      */
     public void removeCorpse(UUID playerUuid) {
-        Corpse corpse = corpses.remove(playerUuid);
+        removeCorpse(playerUuid, null);
+    }
+
+    /**
+     * @param profileRemovals collects the player info removals per viewer instead of sending
+     *                        them right away, or null to send them now
+     */
+    private void removeCorpse(UUID playerUuid, Map<UUID, List<UUID>> profileRemovals) {
+        GameProfile gameProfile = registry.getProfile(playerUuid);
+        Corpse corpse = registry.remove(playerUuid);
         if (corpse != null && corpse.hasEntityId()) {
             despawnCorpseNPC(corpse);
         }
-        corpseProfiles.remove(playerUuid);
-        saveCorpses();
+        if (gameProfile != null) {
+            unregisterProfile(gameProfile.id(), profileRemovals);
+        }
+        if (corpse != null) {
+            expiry.untrack(corpse);
+            persister.recordRemove(playerUuid, corpse.getWorldName());
+            return;
+        }
+
+        // Corpse in a world that isn't loaded right now
+        String dormantWorld = registry.removeDormant(playerUuid);
+        if (dormantWorld != null) {
+            persister.recordRemove(playerUuid, dormantWorld);
+        }
     }
 
     /**
      * Get a corpse by player UUID
      */
     public Corpse getCorpse(UUID playerUuid) {
-        return corpses.get(playerUuid);
+        return registry.get(playerUuid);
     }
 
     /**
-     * Get a corpse by the NPC's entity ID
+     * Get a corpse by the NPC's entity ID (safe to call from the Netty thread)
      */
     public Corpse getCorpseByEntityId(int entityId) {
-        for (Corpse corpse : corpses.values()) {
-            if (corpse.getEntityId() == entityId) {
-                return corpse;
-            }
-        }
-        return null;
+        return registry.getByEntityId(entityId);
+    }
+
+    /**
+     * Cheap check whether an entity ID falls in our fake ID block (no map access)
+     */
+    public boolean isCorpseEntityId(int entityId) {
+        return CorpseEntityIndex.isCorpseEntityId(entityId);
     }
 
     /**
      * Check if a player has a corpse
      */
     public boolean hasCorpse(UUID playerUuid) {
-        return corpses.containsKey(playerUuid);
+        return registry.contains(playerUuid) || registry.getDormantWorld(playerUuid) != null;
+    }
+
+    /**
+     * Find the owner of a corpse by player name (case-insensitive), including corpses in
+     * worlds that aren't loaded
+     *
+     * @return the player's UUID, or null if they have no corpse
+     */
+    public UUID findCorpseOwner(String playerName) {
+        for (Corpse corpse : registry.snapshot()) {
+            if (corpse.getPlayerName().equalsIgnoreCase(playerName)) {
+                return corpse.getPlayerUuid();
+            }
+        }
+        return registry.findDormantOwner(playerName);
+    }
+
+    /**
+     * Name of a corpse's player, including corpses in worlds that aren't loaded (null if no corpse)
+     */
+    public String getCorpseOwnerName(UUID playerUuid) {
+        Corpse corpse = registry.get(playerUuid);
+        return corpse != null ? corpse.getPlayerName() : registry.getDormantName(playerUuid);
+    }
+
+    /**
+     * Player names of the corpses in worlds that aren't loaded
+     */
+    public List<String> getDormantCorpseOwnerNames() {
+        return registry.dormantNames();
+    }
+
+    /**
+     * World of a corpse that is stored but whose world isn't loaded, or null
+     */
+    public String getDormantCorpseWorld(UUID playerUuid) {
+        return registry.getDormantWorld(playerUuid);
     }
 
     /**
-     * Get all corpses
+     * Get an immutable snapshot of all corpses (safe to iterate from any thread)
      */
     public Collection<Corpse> getAllCorpses() {
-        return corpses.values();
+        return registry.snapshot();
+    }
+
+    /**
+     * Find corpses matching an admin query, including corpses in worlds that aren't loaded.
+     * The store is queried off the main thread (SQLite uses its indexes, the file store reads
+     * the shards); if that fails only the loaded corpses are filtered.
+     * The callback always runs on the main thread.
+     */
+    public void findCorpses(CorpseQuery query, Consumer<List<Corpse>> callback) {
+        persister.query(query).whenComplete((stored, error) -> {
+            if (!plugin.isEnabled()) return;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (error != null) {
+                    plugin.getLogger().warning("Corpse query failed, listing loaded corpses only: " + error.getMessage());
+                    callback.accept(filterCorpses(query));
+                    return;
+                }
+
+                // Loaded corpses are reported as the live instances
+                List<Corpse> result = new ArrayList<>(stored.size());
+                for (Corpse corpse : stored) {
+                    Corpse resident = registry.get(corpse.getPlayerUuid());
+                    result.add(resident != null ? resident : corpse);
+                }
+                callback.accept(result);
+            });
+        });
+    }
+
+    private List<Corpse> filterCorpses(CorpseQuery query) {
+        List<Corpse> result = new ArrayList<>();
+        for (Corpse corpse : registry.snapshot()) {
+            if (query.matches(corpse)) {
+                result.add(corpse);
+            }
+        }
+        result.sort(Comparator.comparingLong(Corpse::getDeathTime));
+        return result;
+    }
+
+    /**
+     * Up to {@code limit} corpses closest to a location, nearest first
+     *
+     * @param maxDistance only corpses within this many blocks (<= 0 for no limit)
+     */
+    public List<Corpse> findNearestCorpses(Location location, int limit, double maxDistance) {
+        if (location.getWorld() == null) {
+            return List.of();
+        }
+        return registry.nearest(location.getWorld().getName(),
+            location.getX(), location.getY(), location.getZ(), limit, maxDistance);
     }
 
     /**
-     * Get corpse count
+     * Get corpse count (loaded worlds only)
      */
     public int getCorpseCount() {
-        return corpses.size();
+        return registry.size();
+    }
+
+    /**
+     * Number of corpses in worlds that aren't loaded
+     */
+    public int getDormantCorpseCount() {
+        return registry.dormantCount();
     }
 
     /**
      * Spawn the corpse NPC using native NMS packets
      */
     public void spawnCorpseNPC(Corpse corpse, Player sourcePlayer) {
-        Location loc = corpse.getLocation();
-        if (loc == null || loc.getWorld() == null) {
+        if (corpse.getWorld() == null) {
             plugin.getLogger().warning("Cannot spawn corpse for " + corpse.getPlayerName() + " - world not loaded");
             return;
         }
 
         // Generate unique entity ID
-        int entityId = nextEntityId--;
-        corpse.setEntityId(entityId);
+        registry.assignEntityId(corpse);
 
         // Create native Mojang GameProfile with skin
         GameProfile gameProfile = createGameProfile(corpse, sourcePlayer);
-        corpseProfiles.put(corpse.getPlayerUuid(), gameProfile);
+        registry.putProfile(corpse.getPlayerUuid(), gameProfile);
 
-        // Send packets to all players in the same world
-        for (Player viewer : loc.getWorld().getPlayers()) {
-            sendSpawnPackets(viewer, corpse, entityId, gameProfile, loc);
-        }
+        // Show it to the players that have its chunk loaded
+        visibility.showToAll(corpse);
 
         plugin.getLogger().info("Spawned corpse NPC for " + corpse.getPlayerName() + " at " + 
-            loc.getBlockX() + ", " + loc.getBlockY() + ", " + loc.getBlockZ());
+            corpse.getBlockX() + ", " + corpse.getBlockY() + ", " + corpse.getBlockZ());
     }
     
     /**
      * Spawn corpse from loaded data (no source player available)
      */
     public void spawnCorpseNPC(Corpse corpse) {
-        Location loc = corpse.getLocation();
-        if (loc == null || loc.getWorld() == null) {
+        if (corpse.getWorld() == null) {
             plugin.getLogger().warning("Cannot spawn corpse for " + corpse.getPlayerName() + " - world not loaded");
             return;
         }
 
         // Generate unique entity ID
-        int entityId = nextEntityId--;
-        corpse.setEntityId(entityId);
+        registry.assignEntityId(corpse);
 
         // Create native Mojang GameProfile - try to get skin from offline player
         GameProfile gameProfile = createGameProfileOffline(corpse);
-        corpseProfiles.put(corpse.getPlayerUuid(), gameProfile);
+        registry.putProfile(corpse.getPlayerUuid(), gameProfile);
 
-        // Send packets to all players in the same world
-        for (Player viewer : loc.getWorld().getPlayers()) {
-            sendSpawnPackets(viewer, corpse, entityId, gameProfile, loc);
-        }
+        // Show it to the players that have its chunk loaded
+        visibility.showToAll(corpse);
 
         plugin.getLogger().info("Spawned corpse NPC for " + corpse.getPlayerName() + " at " + 
-            loc.getBlockX() + ", " + loc.getBlockY() + ", " + loc.getBlockZ());
+            corpse.getBlockX() + ", " + corpse.getBlockY() + ", " + corpse.getBlockZ());
     }
 
     /**
-     * Create a Mojang GameProfile with skin data from an online player
+     * Create a Mojang GameProfile for a corpse without waiting on the network.
+     * Skin sources, cheapest first: the online player's own textures, the skin store on disk,
+     * Paper's profile cache, then Mojang's API in the background - the profile starts with the
+     * last known (or default) skin and the corpse is respawned once the fetched skin arrives.
      */
     private GameProfile createGameProfile(Corpse corpse, Player sourcePlayer) {
-        // Use a random UUID so it doesn't conflict with the real player
-        UUID npcUuid = UUID.randomUUID();
+        // Stable per player, so clients can reuse what they cached for it
+        UUID npcUuid = npcUuid(corpse.getPlayerUuid());
+
+        // Tier 1: live textures (instant, no network)
+        SkinFetcher.SkinData liveSkin = sourcePlayer != null ? captureSkin(sourcePlayer) : null;
+        if (liveSkin != null) {
+            plugin.getLogger().fine("Applied skin for corpse (live profile): " + corpse.getPlayerName());
+            return SkinFetcher.createProfileWithSkin(npcUuid, corpse.getPlayerName(), liveSkin);
+        }
+
+        // Tier 2: captured earlier (join, quit, death or a previous fetch)
+        SkinFetcher.SkinData storedSkin = skinStore.get(corpse.getPlayerUuid());
+        if (storedSkin != null) {
+            return SkinFetcher.createProfileWithSkin(npcUuid, corpse.getPlayerName(), storedSkin);
+        }
+
+        // Tier 3: Paper's server-side profile cache
+        SkinFetcher.SkinData paperSkin = cachedPaperSkin(corpse);
+        if (paperSkin != null) {
+            skinStore.put(corpse.getPlayerUuid(), paperSkin);
+            return SkinFetcher.createProfileWithSkin(npcUuid, corpse.getPlayerName(), paperSkin);
+        }
         
-        // Method 1: Try NMS GameProfile (instant, no network)
+        // Tier 4: last known skin now, Mojang API (using the REAL player UUID) in the background
+        SkinFetcher.SkinData knownSkin = SkinFetcher.getLastKnownSkin(corpse.getPlayerUuid());
+        GameProfile gameProfile = SkinFetcher.createProfileWithSkin(npcUuid, corpse.getPlayerName(), knownSkin);
+        if (!SkinFetcher.isCached(corpse.getPlayerUuid())) {
+            plugin.getLogger().fine("Fetching skin from Mojang API for " + corpse.getPlayerName() + " (UUID: " + corpse.getPlayerUuid() + ")");
+            SkinFetcher.fetchSkinAsync(plugin, corpse.getPlayerUuid(),
+                skinData -> applyFetchedSkin(corpse.getPlayerUuid(), gameProfile, knownSkin, skinData));
+        } else if (knownSkin == null) {
+            plugin.getLogger().fine("No textures found for " + corpse.getPlayerName() + " - using default skin");
+        } else {
+            // Fetched earlier (e.g. by the load prefetch) - keep it for the next restart
+            skinStore.put(corpse.getPlayerUuid(), knownSkin);
+        }
+        return gameProfile;
+    }
+
+    /**
+     * Profile UUID of a player's corpse NPC. Derived from the player's UUID and marked as
+     * version 2, which Mojang never hands out, so it can't clash with a real player.
+     */
+    private static UUID npcUuid(UUID playerUuid) {
+        UUID hashed = UUID.nameUUIDFromBytes(("HardcoreRevival-NPC:" + playerUuid).getBytes(StandardCharsets.UTF_8));
+        long mostSigBits = (hashed.getMostSignificantBits() & ~0xF000L) | 0x2000L;
+        return new UUID(mostSigBits, hashed.getLeastSignificantBits());
+    }
+
+    /**
+     * Read an online player's textures and remember them in the skin store
+     *
+     * @return the textures, or null if the player has none
+     */
+    public SkinFetcher.SkinData captureSkin(Player player) {
         try {
-            if (sourcePlayer instanceof CraftPlayer craftPlayer) {
+            if (player instanceof CraftPlayer craftPlayer) {
                 GameProfile nmsProfile = craftPlayer.getHandle().getGameProfile();
-                if (nmsProfile != null) {
-                    var propertyMap = nmsProfile.properties();
-                    if (propertyMap != null) {
-                        Collection<Property> textures = propertyMap.get("textures");
-                        if (textures != null && !textures.isEmpty()) {
-                            for (Property prop : textures) {
-                                String value = prop.value();
-                                String signature = prop.signature();
-                                if (value != null && !value.isEmpty()) {
-                                    // Use helper to create profile with skin already applied
-                                    GameProfile gameProfile = SkinFetcher.createProfileWithSkin(
-                                        npcUuid, corpse.getPlayerName(), value, signature);
-                                    plugin.getLogger().info("Applied skin for corpse (NMS): " + corpse.getPlayerName());
-                                    return gameProfile;
-                                }
-                            }
+                if (nmsProfile != null && nmsProfile.properties() != null) {
+                    for (Property prop : nmsProfile.properties().get("textures")) {
+                        if (prop.value() != null && !prop.value().isEmpty()) {
+                            SkinFetcher.SkinData skinData = new SkinFetcher.SkinData(prop.value(), prop.signature());
+                            skinStore.put(player.getUniqueId(), skinData);
+                            return skinData;
                         }
                     }
-                    plugin.getLogger().fine("NMS profile exists but no textures for " + corpse.getPlayerName());
                 }
             }
         } catch (Exception e) {
-            plugin.getLogger().warning("NMS skin fetch error for " + corpse.getPlayerName() + ": " + e.getClass().getName() + " - " + e.getMessage());
-            e.printStackTrace();
+            plugin.getLogger().warning("NMS skin fetch error for " + player.getName() + ": " + e.getClass().getName() + " - " + e.getMessage());
         }
-        
-        // Method 2: Fetch from Mojang API using the REAL player UUID
-        try {
-            plugin.getLogger().info("Fetching skin from Mojang API for " + corpse.getPlayerName() + " (UUID: " + sourcePlayer.getUniqueId() + ")");
-            SkinFetcher.SkinData skinData = SkinFetcher.fetchSkin(plugin, sourcePlayer.getUniqueId());
-            if (skinData != null && skinData.isValid()) {
-                // Use helper to create profile with skin already applied
-                GameProfile gameProfile = SkinFetcher.createProfileWithSkin(
-                    npcUuid, corpse.getPlayerName(), skinData);
-                plugin.getLogger().info("Applied skin for corpse (Mojang API): " + corpse.getPlayerName());
-                return gameProfile;
-            } else {
-                plugin.getLogger().warning("Mojang API returned no skin data for " + corpse.getPlayerName());
+        return null;
+    }
+
+    /**
+     * Textures from Paper's profile cache, never touching the network.
+     * The user cache often completes a profile with just its name and id; that counts as a miss.
+     */
+    private SkinFetcher.SkinData cachedPaperSkin(Corpse corpse) {
+        PlayerProfile profile = Bukkit.createProfile(corpse.getPlayerUuid(), corpse.getPlayerName());
+        if (!profile.completeFromCache() || !profile.hasTextures()) {
+            return null;
+        }
+        for (ProfileProperty property : profile.getProperties()) {
+            if (property.getName().equals("textures") && !property.getValue().isEmpty()) {
+                return new SkinFetcher.SkinData(property.getValue(), property.getSignature());
             }
-        } catch (Exception e) {
-            plugin.getLogger().warning("Mojang API skin fetch error for " + corpse.getPlayerName() + ": " + e.getClass().getName() + " - " + e.getMessage());
-            e.printStackTrace();
         }
-        
-        plugin.getLogger().warning("Could not get skin for " + corpse.getPlayerName() + " - using default Steve/Alex skin");
-        // Return a profile without skin
-        return SkinFetcher.createProfileWithSkin(npcUuid, corpse.getPlayerName(), (SkinFetcher.SkinData) null);
+        return null;
     }
     
     /**
-     * Create a Mojang GameProfile for offline player (try to fetch skin from Mojang API)
+     * Create a Mojang GameProfile for a corpse whose player may be offline
      */
     private GameProfile createGameProfileOffline(Corpse corpse) {
-        // If player is actually online, use the online method
-        Player onlinePlayer = Bukkit.getPlayer(corpse.getPlayerUuid());
-        if (onlinePlayer != null && onlinePlayer.isOnline()) {
-            return createGameProfile(corpse, onlinePlayer);
+        return createGameProfile(corpse, Bukkit.getPlayer(corpse.getPlayerUuid()));
+    }
+
+    /**
+     * A background skin fetch finished (main thread). Respawn the corpse with the skin
+     * if it still uses the placeholder profile the fetch was started for.
+     */
+    private void applyFetchedSkin(UUID playerUuid, GameProfile placeholder,
+                                  SkinFetcher.SkinData knownSkin, SkinFetcher.SkinData skinData) {
+        Corpse corpse = registry.get(playerUuid);
+        if (corpse == null || registry.getProfile(playerUuid) != placeholder) {
+            // Revived, unloaded or reloaded meanwhile
+            return;
         }
-        
-        UUID npcUuid = UUID.randomUUID();
-        
-        // Fetch skin from Mojang API (this is the most reliable method for offline players)
-        try {
-            SkinFetcher.SkinData skinData = SkinFetcher.fetchSkin(plugin, corpse.getPlayerUuid());
-            if (skinData != null && skinData.isValid()) {
-                GameProfile gameProfile = SkinFetcher.createProfileWithSkin(
-                    npcUuid, corpse.getPlayerName(), skinData);
-                plugin.getLogger().fine("Applied offline skin for corpse (via Mojang API): " + corpse.getPlayerName());
-                return gameProfile;
-            }
-        } catch (Exception e) {
-            plugin.getLogger().fine("Could not fetch skin from Mojang API for " + corpse.getPlayerName());
+        if (skinData == null || !skinData.isValid()) {
+            plugin.getLogger().warning("Could not get skin for " + corpse.getPlayerName() + " - keeping " +
+                (knownSkin != null ? "last known" : "default Steve/Alex") + " skin");
+            return;
         }
-        
-        plugin.getLogger().fine("No textures found for " + corpse.getPlayerName() + " - using default skin");
-        return SkinFetcher.createProfileWithSkin(npcUuid, corpse.getPlayerName(), (SkinFetcher.SkinData) null);
+        skinStore.put(playerUuid, skinData);
+        if (knownSkin != null && knownSkin.value().equals(skinData.value())) {
+            return;
+        }
+
+        GameProfile gameProfile = SkinFetcher.createProfileWithSkin(placeholder.id(), corpse.getPlayerName(), skinData);
+
+        // Clients ignore a second add for a profile they have, so remove it first and respawn the entity
+        despawnCorpseNPC(corpse);
+        unregisterProfile(placeholder.id());
+        registry.putProfile(playerUuid, gameProfile);
+        registry.assignEntityId(corpse);
+        visibility.showToAll(corpse);
+
+        plugin.getLogger().info("Applied skin for corpse (Mojang API): " + corpse.getPlayerName());
+    }
+
+    /**
+     * Build the spawn packets of one corpse using NMS
+     */
+    private CorpsePackets buildSpawnPackets(Corpse corpse, GameProfile gameProfile, CorpseAppearance appearance) {
+        int entityId = corpse.getEntityId();
+
+        // 1. Player Info entry (not listed, so it never shows up in tab)
+        ClientboundPlayerInfoUpdatePacket.Entry entry = new ClientboundPlayerInfoUpdatePacket.Entry(
+            gameProfile.id(),
+            gameProfile,
+            false, // listed
+            0, // latency
+            net.minecraft.world.level.GameType.SURVIVAL,
+            net.minecraft.network.chat.Component.literal(corpse.getPlayerName()),
+            true, // showHat
+            0, // listOrder
+            null // chatSession
+        );
+
+        // 2. Spawn Entity packet using NMS (NAMED_ENTITY_SPAWN was removed in 1.20.2+)
+        ClientboundAddEntityPacket spawnPacket = new ClientboundAddEntityPacket(
+            entityId,
+            gameProfile.id(),
+            corpse.getX(),
+            corpse.getY(),
+            corpse.getZ(),
+            corpse.getPitch(),
+            corpse.getYaw(),
+            EntityType.PLAYER,
+            0, // data
+            Vec3.ZERO, // velocity
+            corpse.getYaw() // headYaw
+        );
+
+        // 3. Entity Metadata packet - Set pose to swimming (horizontal)
+        return new CorpsePackets(entityId, gameProfile, appearance, entry, spawnPacket,
+            CorpsePacketSender.metadata(entityId, appearance));
     }
 
     /**
-     * Send spawn packets to a specific viewer using NMS
+     * Send spawn packets for a batch of corpses to a viewer.
+     * Everything goes out as one bundle, so the client applies the player info, spawn and
+     * pose of every corpse in the same frame and the connection is flushed once.
      */
-    private void sendSpawnPackets(Player viewer, Corpse corpse, int entityId, 
-                                   GameProfile gameProfile, Location loc) {
+    private void sendSpawnPackets(Player viewer, List<CorpsePackets> batch) {
         try {
-            CraftPlayer craftViewer = (CraftPlayer) viewer;
-            ServerPlayer serverPlayer = craftViewer.getHandle();
-            
-            // 1. Send Player Info Add packet (adds to tab list temporarily)
-            ClientboundPlayerInfoUpdatePacket.Entry entry = new ClientboundPlayerInfoUpdatePacket.Entry(
-                gameProfile.id(),
-                gameProfile,
-                true, // listed
-                0, // latency
-                net.minecraft.world.level.GameType.SURVIVAL,
-                net.minecraft.network.chat.Component.literal(corpse.getPlayerName()),
-                true, // showHat
-                0, // listOrder
-                null // chatSession
-            );
-            
-            ClientboundPlayerInfoUpdatePacket infoPacket = new ClientboundPlayerInfoUpdatePacket(
-                EnumSet.of(ClientboundPlayerInfoUpdatePacket.Action.ADD_PLAYER),
-                Collections.singletonList(entry)
-            );
-            serverPlayer.connection.send(infoPacket);
-
-            // 2. Spawn Entity packet using NMS (NAMED_ENTITY_SPAWN was removed in 1.20.2+)
-            ClientboundAddEntityPacket spawnPacket = new ClientboundAddEntityPacket(
-                entityId,
-                gameProfile.id(),
-                loc.getX(),
-                loc.getY(),
-                loc.getZ(),
-                loc.getPitch(),
-                loc.getYaw(),
-                EntityType.PLAYER,
-                0, // data
-                Vec3.ZERO, // velocity
-                loc.getYaw() // headYaw
-            );
-            serverPlayer.connection.send(spawnPacket);
-
-            // 3. Entity Metadata packet - Set pose to swimming (horizontal)
-            PacketContainer metadata = protocolManager.createPacket(PacketType.Play.Server.ENTITY_METADATA);
-            metadata.getIntegers().write(0, entityId);
-            
-            boolean useSwimmingPose = plugin.getConfig().getBoolean("corpse.use-swimming-pose", true);
-            boolean glowing = plugin.getConfig().getBoolean("corpse.glowing", false);
-            
-            List<WrappedDataValue> dataValues = new ArrayList<>();
-            
-            // Entity flags (index 0) - set glowing if enabled
-            byte entityFlags = 0;
-            if (glowing) {
-                entityFlags |= 0x40; // Glowing flag
+            // 1. Player Info for profiles this client doesn't know yet (unlisted, so no removal needed)
+            List<ClientboundPlayerInfoUpdatePacket.Entry> entries = new ArrayList<>(batch.size());
+            for (CorpsePackets corpsePackets : batch) {
+                if (profileRegistrations.register(viewer.getUniqueId(), corpsePackets.profile().id())) {
+                    entries.add(corpsePackets.infoEntry());
+                }
+            }
+
+            List<Packet<? super ClientGamePacketListener>> packets = new ArrayList<>(1 + batch.size() * 2);
+            if (!entries.isEmpty()) {
+                packets.add(new ClientboundPlayerInfoUpdatePacket(
+                    EnumSet.of(ClientboundPlayerInfoUpdatePacket.Action.ADD_PLAYER), entries));
             }
-            dataValues.add(new WrappedDataValue(0, WrappedDataWatcher.Registry.get(Byte.class), entityFlags));
-            
-            // Pose (index 6) - SWIMMING for horizontal position
-            if (useSwimmingPose) {
-                dataValues.add(new WrappedDataValue(6, WrappedDataWatcher.Registry.get(
-                    EnumWrappers.getEntityPoseClass()), EnumWrappers.EntityPose.SWIMMING.toNms()));
+            for (CorpsePackets corpsePackets : batch) {
+                packets.add(corpsePackets.addEntity());
+                packets.add(corpsePackets.metadata());
             }
-            
-            metadata.getDataValueCollectionModifier().write(0, dataValues);
-            protocolManager.sendServerPacket(viewer, metadata);
-
-            // 4. Remove from tab list after a short delay (so skin loads)
-            final UUID profileId = gameProfile.id();
-            Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                try {
-                    if (viewer.isOnline()) {
-                        CraftPlayer cp = (CraftPlayer) viewer;
-                        ClientboundPlayerInfoRemovePacket removePacket = 
-                            new ClientboundPlayerInfoRemovePacket(Collections.singletonList(profileId));
-                        cp.getHandle().connection.send(removePacket);
-                    }
-                } catch (Exception e) {
-                    // Player might have disconnected
-                }
-            }, 40L); // 2 seconds
+
+            CorpsePacketSender.sendBundled(viewer, packets);
 
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to send spawn packets to " + viewer.getName() + ": " + e.getMessage());
@@ -363,113 +692,162 @@ public class CorpseManager {
      * Despawn a corpse NPC for all viewers
      */
     private void despawnCorpseNPC(Corpse corpse) {
-        if (!corpse.hasEntityId()) return;
-
-        Location loc = corpse.getLocation();
-        if (loc == null || loc.getWorld() == null) return;
+        visibility.hideFromAll(corpse);
+    }
 
-        for (Player viewer : loc.getWorld().getPlayers()) {
-            sendDespawnPacket(viewer, corpse.getEntityId());
-        }
+    private void queueDespawn(Player viewer, int entityId) {
+        despawnBatcher.queue(viewer.getUniqueId(), entityId);
     }
 
     /**
-     * Send despawn packet to a viewer (private)
+     * Send one destroy packet for several entities to a viewer
      */
-    private void sendDespawnPacket(Player viewer, int entityId) {
+    private void sendDespawnPacket(Player viewer, IntList entityIds) {
         try {
-            PacketContainer destroyEntity = protocolManager.createPacket(PacketType.Play.Server.ENTITY_DESTROY);
-            destroyEntity.getIntLists().write(0, Collections.singletonList(entityId));
-            protocolManager.sendServerPacket(viewer, destroyEntity);
+            CorpsePacketSender.send(viewer, CorpsePacketSender.removeEntities(entityIds));
         } catch (Exception e) {
             // Player might have disconnected
         }
     }
-    
+
     /**
-     * Send despawn packet to a specific player (public, for delayed despawns)
+     * Despawn entities for a specific player (for delayed despawns), batched with other despawns this tick
      */
-    public void sendDespawnPacketToPlayer(Player player, int entityId) {
-        sendDespawnPacket(player, entityId);
+    public void sendDespawnPacketsToPlayer(Player player, Collection<Integer> entityIds) {
+        for (int entityId : entityIds) {
+            despawnBatcher.queue(player.getUniqueId(), entityId);
+        }
     }
 
     /**
-     * Spawn all corpses for a player who just joined
+     * Show a player the corpses around them that they aren't seeing yet
+     * (join, respawn, world change). Already shown corpses are not sent again.
      */
     public void spawnCorpsesForPlayer(Player player) {
-        for (Corpse corpse : corpses.values()) {
-            Location loc = corpse.getLocation();
-            if (loc != null && loc.getWorld() != null && 
-                loc.getWorld().equals(player.getWorld()) && corpse.hasEntityId()) {
-                
-                GameProfile gameProfile = corpseProfiles.get(corpse.getPlayerUuid());
-                if (gameProfile == null) {
-                    gameProfile = createGameProfileOffline(corpse);
-                    corpseProfiles.put(corpse.getPlayerUuid(), gameProfile);
-                }
-                
-                sendSpawnPackets(player, corpse, corpse.getEntityId(), gameProfile, loc);
+        visibility.refresh(player);
+    }
+
+    /**
+     * A chunk was sent to a player
+     */
+    public void onChunkSent(Player player, World world, int chunkX, int chunkZ) {
+        visibility.onChunkSent(player, world, chunkX, chunkZ);
+    }
+
+    /**
+     * A player's client unloaded a chunk
+     */
+    public void onChunkForgotten(Player player, World world, int chunkX, int chunkZ) {
+        visibility.onChunkForgotten(player, world, chunkX, chunkZ);
+    }
+
+    /**
+     * A player moved into another chunk (only matters with corpse.view-radius)
+     */
+    public void onViewerChangedChunk(Player player) {
+        if (!visibility.usesViewRadius()) {
+            return;
+        }
+        // Move events fire before the player's location is updated
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            if (player.isOnline()) {
+                visibility.refresh(player);
             }
+        });
+    }
+
+    /**
+     * The player's client dropped all entities (world change or respawn)
+     */
+    public void resetViewer(Player player) {
+        visibility.resetViewer(player);
+    }
+
+    public void removeViewer(UUID playerUuid) {
+        visibility.removeViewer(playerUuid);
+        profileRegistrations.removeViewer(playerUuid);
+        despawnBatcher.removeViewer(playerUuid);
+    }
+
+    /**
+     * Send the NPC packets for a batch of corpses to one viewer
+     */
+    private void showCorpses(Player viewer, List<Corpse> corpses) {
+        List<CorpsePackets> batch = new ArrayList<>(corpses.size());
+        for (Corpse corpse : corpses) {
+            // A destroy still queued for this tick would remove it again right after the spawn
+            despawnBatcher.cancel(viewer.getUniqueId(), corpse.getEntityId());
+            batch.add(corpsePackets(corpse));
         }
+        sendSpawnPackets(viewer, batch);
     }
 
     /**
-     * Remove all corpse NPCs (for plugin disable)
+     * The corpse's spawn packets, rebuilt only when its entity ID, profile or the appearance config changed
      */
-    public void removeAllCorpseNPCs() {
-        for (Corpse corpse : corpses.values()) {
-            if (corpse.hasEntityId()) {
-                despawnCorpseNPC(corpse);
-            }
+    private CorpsePackets corpsePackets(Corpse corpse) {
+        GameProfile gameProfile = registry.getProfile(corpse.getPlayerUuid());
+        if (gameProfile == null) {
+            gameProfile = createGameProfileOffline(corpse);
+            registry.putProfile(corpse.getPlayerUuid(), gameProfile);
+        }
+
+        CorpsePackets cached = registry.getPackets(corpse.getPlayerUuid());
+        if (cached != null && cached.matches(corpse, gameProfile, appearance)) {
+            return cached;
         }
+
+        CorpsePackets built = buildSpawnPackets(corpse, gameProfile, appearance);
+        registry.putPackets(corpse.getPlayerUuid(), built);
+        return built;
     }
 
     /**
-     * Find a safe location near the death location
+     * Remove all corpse NPCs (for plugin disable)
      */
-    public Location findSafeLocation(Location deathLocation) {
-        World world = deathLocation.getWorld();
-        if (world == null) return deathLocation;
+    public void removeAllCorpseNPCs() {
+        visibility.hideAll();
+        // One destroy packet per viewer, sent right away (we may be disabling)
+        despawnBatcher.flush();
 
-        // Check if current location is safe
-        if (isSafeLocation(deathLocation)) {
-            return deathLocation.clone();
+        // Take the hidden player info entries off the clients too
+        for (Map.Entry<UUID, Set<UUID>> entry : profileRegistrations.clear().entrySet()) {
+            Player viewer = Bukkit.getPlayer(entry.getKey());
+            if (viewer != null && !entry.getValue().isEmpty()) {
+                sendProfileRemove(viewer, List.copyOf(entry.getValue()));
+            }
         }
+    }
 
-        int searchRadius = plugin.getConfig().getInt("safe-location-search-radius", 50);
+    /**
+     * Remove a corpse profile from the player info list of every viewer that has it
+     */
+    private void unregisterProfile(UUID profileId) {
+        unregisterProfile(profileId, null);
+    }
 
-        // Search in expanding squares
-        for (int radius = 1; radius <= searchRadius; radius++) {
-            for (int dx = -radius; dx <= radius; dx++) {
-                for (int dz = -radius; dz <= radius; dz++) {
-                    // Only check perimeter of current radius
-                    if (Math.abs(dx) != radius && Math.abs(dz) != radius) continue;
-
-                    int x = deathLocation.getBlockX() + dx;
-                    int z = deathLocation.getBlockZ() + dz;
-
-                    // Search vertically from death Y
-                    for (int dy = 0; dy <= radius; dy++) {
-                        for (int yDir : new int[]{dy, -dy}) {
-                            if (dy == 0 && yDir < 0) continue;
-                            
-                            int y = deathLocation.getBlockY() + yDir;
-                            if (y < world.getMinHeight() || y > world.getMaxHeight()) continue;
-
-                            Location test = new Location(world, x + 0.5, y, z + 0.5, 
-                                deathLocation.getYaw(), deathLocation.getPitch());
-                            if (isSafeLocation(test)) {
-                                return test;
-                            }
-                        }
-                    }
-                }
+    /**
+     * @param profileRemovals collects the removal per viewer instead of sending it, or null to send it now
+     */
+    private void unregisterProfile(UUID profileId, Map<UUID, List<UUID>> profileRemovals) {
+        for (UUID viewerUuid : profileRegistrations.unregister(profileId)) {
+            if (profileRemovals != null) {
+                profileRemovals.computeIfAbsent(viewerUuid, viewer -> new ArrayList<>()).add(profileId);
+                continue;
+            }
+            Player viewer = Bukkit.getPlayer(viewerUuid);
+            if (viewer != null) {
+                sendProfileRemove(viewer, List.of(profileId));
             }
         }
+    }
 
-        // Last resort: spawn at world spawn
-        plugin.getLogger().warning("Could not find safe location for corpse, using world spawn");
-        return world.getSpawnLocation();
+    private void sendProfileRemove(Player viewer, List<UUID> profileIds) {
+        try {
+            CorpsePacketSender.send(viewer, new ClientboundPlayerInfoRemovePacket(profileIds));
+        } catch (Exception e) {
+            // Player might have disconnected
+        }
     }
 
     /**
@@ -484,65 +862,277 @@ public class CorpseManager {
         // Check for void
         if (y < world.getMinHeight() + 1) return false;
 
+        // Same rule as the async search, so spots it finds pass this re-check
         Block feet = location.getBlock();
-        Block below = feet.getRelative(BlockFace.DOWN);
+        return SafeLocationSearch.isSafeSpot(feet.getType(), feet.getRelative(BlockFace.DOWN).getType());
+    }
 
-        // Check block at feet - must be passable (air, water, etc. but not lava)
-        if (!feet.isPassable() || feet.getType() == Material.LAVA) return false;
+    /**
+     * Schedule a save. Changes are coalesced and written on a background thread.
+     */
+    public void saveCorpses() {
+        persister.markDirty();
+    }
 
-        // Check block below - must be solid and not dangerous
-        Material belowType = below.getType();
-        if (!below.isSolid()) return false;
-        if (belowType == Material.LAVA || belowType == Material.MAGMA_BLOCK || 
-            belowType == Material.CACTUS || belowType == Material.CAMPFIRE ||
-            belowType == Material.SOUL_CAMPFIRE || belowType == Material.FIRE ||
-            belowType == Material.SOUL_FIRE) {
-            return false;
-        }
+    /**
+     * Write pending changes now, waiting a bounded amount of time
+     */
+    public void flushCorpses() {
+        persister.flush(FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
 
-        return true;
+    /**
+     * Flush pending changes and stop the background writer (for plugin disable)
+     */
+    public void shutdown() {
+        skinStore.save();
+        persister.shutdown(FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
     }
 
     /**
-     * Save corpses to JSON file
+     * Apply a config reload without respawning corpses. Settings are compared with the running
+     * ones and only what changed is sent: corpses keep their entities and IDs, and an appearance
+     * change is one metadata packet per shown corpse and viewer. Corpses are only read from
+     * storage again if the stored data was changed by something other than this plugin.
      */
-    public void saveCorpses() {
+    public void reload() {
+        flushCorpses();
+
+        boolean changedExternally;
         try {
-            if (!plugin.getDataFolder().exists()) {
-                plugin.getDataFolder().mkdirs();
+            changedExternally = store.changedExternally();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not check corpse storage for changes: " + e.getMessage());
+            changedExternally = true;
+        }
+        if (changedExternally) {
+            plugin.getLogger().info("Corpse storage was changed outside the plugin - loading all corpses again");
+            loadCorpses();
+            return;
+        }
+
+        applySettings();
+
+        CorpseAppearance updated = new CorpseAppearance(plugin.getConfig());
+        if (!updated.sameAs(appearance)) {
+            appearance = updated;
+            sendMetadataUpdates();
+        }
+    }
+
+    /**
+     * Settings that can change on a reload without respawning anything
+     */
+    private void applySettings() {
+        SkinFetcher.configure(plugin.getConfig());
+        safeSpots.setMaxEntries(plugin.getConfig().getInt("safe-location-cache-size", 256));
+
+        if (expiry.setLifetime(plugin.getConfig().getLong("corpse.expire-time", -1) * 60_000)) {
+            for (Corpse corpse : registry.snapshot()) {
+                expiry.track(corpse);
             }
+        }
 
-            try (Writer writer = new FileWriter(dataFile)) {
-                gson.toJson(corpses, writer);
+        if (visibility.setViewRadius(plugin.getConfig().getInt("corpse.view-radius", 0))) {
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                visibility.refresh(player);
             }
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save corpses: " + e.getMessage());
         }
     }
 
     /**
-     * Load corpses from JSON file
+     * Push the current appearance to every corpse a viewer sees, one bundle per viewer.
+     * The packets are shared between viewers.
+     */
+    private void sendMetadataUpdates() {
+        Int2ObjectMap<ClientboundSetEntityDataPacket> packets = new Int2ObjectOpenHashMap<>();
+        visibility.forEachViewer((viewer, entityIds) -> {
+            List<Packet<? super ClientGamePacketListener>> batch = new ArrayList<>(entityIds.size());
+            IntIterator ids = entityIds.iterator();
+            while (ids.hasNext()) {
+                batch.add(packets.computeIfAbsent(ids.nextInt(), entityId -> CorpsePacketSender.metadata(entityId, appearance)));
+            }
+            try {
+                CorpsePacketSender.sendBundled(viewer, batch);
+            } catch (Exception e) {
+                // Player might have disconnected
+            }
+        });
+    }
+
+    /**
+     * Load corpses of every loaded world from the configured store. Worlds that aren't
+     * loaded only get their owners remembered and are read when the world loads.
      */
     public void loadCorpses() {
-        if (!dataFile.exists()) {
+        // Old NPCs get new entity IDs and profiles below, so take them off the clients first
+        removeAllCorpseNPCs();
+        appearance = new CorpseAppearance(plugin.getConfig());
+        registry.clear();
+        expiry.clear();
+        applySettings();
+
+        Set<String> storedWorlds;
+        try {
+            storedWorlds = store.storedWorlds();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to load corpses: " + e.getMessage());
+            return;
+        }
+
+        for (World world : Bukkit.getWorlds()) {
+            try {
+                Map<UUID, Corpse> loaded = storedWorlds.contains(world.getName())
+                    ? store.load(world.getName()) : Map.of();
+                spawnLoaded(registry.addWorld(world.getName(), loaded));
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to load corpses for " + world.getName() + ": " + e.getMessage());
+            }
+        }
+
+        for (String worldName : storedWorlds) {
+            if (Bukkit.getWorld(worldName) == null) {
+                persister.loadWorld(worldName).whenComplete((loaded, error) -> {
+                    if (error != null) {
+                        plugin.getLogger().warning("Failed to index corpses for " + worldName + ": " + error.getMessage());
+                        return;
+                    }
+                    registry.addDormant(worldName, loaded.values());
+                });
+            }
+        }
+    }
+
+    /**
+     * Read a world's corpses in the background when it loads, then spawn them on the main thread
+     */
+    public void onWorldLoad(World world) {
+        String worldName = world.getName();
+        if (registry.isResident(worldName)) {
             return;
         }
 
-        try (Reader reader = new FileReader(dataFile)) {
-            Type type = new TypeToken<HashMap<UUID, Corpse>>(){}.getType();
-            Map<UUID, Corpse> loaded = gson.fromJson(reader, type);
-            
-            if (loaded != null) {
-                corpses.clear();
-                corpses.putAll(loaded);
-                
-                // Respawn NPCs for loaded corpses
-                for (Corpse corpse : corpses.values()) {
-                    spawnCorpseNPC(corpse);
+        persister.loadWorld(worldName).whenComplete((loaded, error) -> {
+            if (!plugin.isEnabled()) return;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (error != null) {
+                    plugin.getLogger().severe("Failed to load corpses for " + worldName + ": " + error.getMessage());
+                    return;
+                }
+                // The world may have been unloaded again while we were reading
+                if (Bukkit.getWorld(worldName) == null || registry.isResident(worldName)) {
+                    return;
+                }
+                spawnLoaded(registry.addWorld(worldName, loaded));
+            });
+        });
+    }
+
+    /**
+     * Drop a world's corpses from memory when it unloads. They stay on disk.
+     */
+    public void onWorldUnload(World world) {
+        safeSpots.removeWorld(world.getName());
+
+        // Profiles are dropped with the corpses, a reload creates new ones
+        Collection<Corpse> resident = registry.residentSnapshot(world.getName());
+        if (resident != null) {
+            for (Corpse corpse : resident) {
+                GameProfile gameProfile = registry.getProfile(corpse.getPlayerUuid());
+                if (gameProfile != null) {
+                    unregisterProfile(gameProfile.id());
                 }
             }
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to load corpses: " + e.getMessage());
         }
+
+        List<Corpse> evicted = registry.evictWorld(world.getName());
+        for (Corpse corpse : evicted) {
+            visibility.forget(corpse);
+            expiry.untrack(corpse);
+            corpse.forgetWorld();
+        }
+        if (!evicted.isEmpty()) {
+            plugin.getLogger().info("Unloaded " + evicted.size() + " corpses with world " + world.getName());
+        }
+    }
+
+    /**
+     * Called for each corpse that expires, just before it is removed (so it still has its entity ID)
+     */
+    public void setExpiryListener(Consumer<Corpse> expiryListener) {
+        this.expiryListener = expiryListener;
+    }
+
+    /**
+     * Remove the corpses whose corpse.expire-time is up (runs every second).
+     * The removals share one background save, and each viewer gets one destroy packet and
+     * one player info removal for all of them.
+     */
+    private void expireCorpses() {
+        List<Corpse> expired = new ArrayList<>();
+        for (Corpse corpse : expiry.pollExpired(System.currentTimeMillis())) {
+            // Revived, removed or replaced since it was scheduled
+            if (registry.get(corpse.getPlayerUuid()) == corpse) {
+                expired.add(corpse);
+            }
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, List<UUID>> profileRemovals = new HashMap<>();
+        for (Corpse corpse : expired) {
+            if (expiryListener != null) {
+                expiryListener.accept(corpse);
+            }
+            removeCorpse(corpse.getPlayerUuid(), profileRemovals);
+        }
+        profileRemovals.forEach((viewerUuid, profileIds) -> {
+            Player viewer = Bukkit.getPlayer(viewerUuid);
+            if (viewer != null) {
+                sendProfileRemove(viewer, profileIds);
+            }
+        });
+        plugin.getLogger().info("Removed " + expired.size() + " expired corpse" + (expired.size() == 1 ? "" : "s"));
+    }
+
+    /**
+     * Spawn loaded corpses. Corpses whose skin isn't known locally are held back while their
+     * skins are prefetched (bounded concurrency and rate), so they spawn with the right skin
+     * instead of being respawned one by one as lookups finish.
+     */
+    private void spawnLoaded(List<Corpse> corpses) {
+        List<Corpse> waiting = new ArrayList<>();
+        Set<UUID> missingSkins = new HashSet<>();
+        for (Corpse corpse : corpses) {
+            expiry.track(corpse);
+            UUID playerUuid = corpse.getPlayerUuid();
+            if (Bukkit.getPlayer(playerUuid) != null || skinStore.get(playerUuid) != null
+                || SkinFetcher.isCached(playerUuid) || cachedPaperSkin(corpse) != null) {
+                spawnCorpseNPC(corpse);
+                checkLoadedSpot(corpse);
+            } else {
+                waiting.add(corpse);
+                missingSkins.add(playerUuid);
+            }
+        }
+        if (waiting.isEmpty()) {
+            return;
+        }
+
+        long timeoutMs = plugin.getConfig().getLong("skins.prefetch-timeout-seconds", 30) * 1000;
+        plugin.getLogger().info("Prefetching " + missingSkins.size() + " skins for loaded corpses");
+        SkinFetcher.prefetch(plugin, missingSkins, System.currentTimeMillis() + timeoutMs).whenComplete((ignored, error) -> {
+            if (!plugin.isEnabled()) return;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                for (Corpse corpse : waiting) {
+                    // Still the same corpse (not revived, unloaded or reloaded meanwhile)
+                    if (registry.get(corpse.getPlayerUuid()) == corpse && !corpse.hasEntityId()) {
+                        spawnCorpseNPC(corpse);
+                        checkLoadedSpot(corpse);
+                    }
+                }
+            });
+        });
     }
-}
\ No newline at end of file
+}
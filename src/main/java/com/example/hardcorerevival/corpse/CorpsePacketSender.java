@@ -0,0 +1,48 @@
+package com.bun.hardcorerevival.corpse;
+
+import it.unimi.dsi.fastutil.ints.IntList;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
+import net.minecraft.network.protocol.game.ClientboundRemoveEntitiesPacket;
+import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
+import org.bukkit.craftbukkit.entity.CraftPlayer;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outbound packet path for corpse NPCs. Builds native NMS packets and writes them straight
+ * to the player's connection - no ProtocolLib wrappers or reflection involved.
+ */
+final class CorpsePacketSender {
+
+    // Clients reject bundles with more than 4096 packets
+    private static final int MAX_BUNDLE_PACKETS = 4000;
+
+    private CorpsePacketSender() {
+    }
+
+    static ClientboundSetEntityDataPacket metadata(int entityId, CorpseAppearance appearance) {
+        return new ClientboundSetEntityDataPacket(entityId, appearance.metadataValues());
+    }
+
+    static ClientboundRemoveEntitiesPacket removeEntities(IntList entityIds) {
+        return new ClientboundRemoveEntitiesPacket(entityIds);
+    }
+
+    static void send(Player viewer, Packet<? super ClientGamePacketListener> packet) {
+        ((CraftPlayer) viewer).getHandle().connection.send(packet);
+    }
+
+    /**
+     * Send packets as bundles (split to stay under the client's per-bundle limit)
+     */
+    static void sendBundled(Player viewer, List<Packet<? super ClientGamePacketListener>> packets) {
+        for (int start = 0; start < packets.size(); start += MAX_BUNDLE_PACKETS) {
+            int end = Math.min(packets.size(), start + MAX_BUNDLE_PACKETS);
+            send(viewer, new ClientboundBundlePacket(new ArrayList<>(packets.subList(start, end))));
+        }
+    }
+}
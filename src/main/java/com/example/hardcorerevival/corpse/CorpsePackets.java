@@ -0,0 +1,28 @@
+package com.bun.hardcorerevival.corpse;
+
+import com.mojang.authlib.GameProfile;
+import net.minecraft.network.protocol.game.ClientboundAddEntityPacket;
+import net.minecraft.network.protocol.game.ClientboundPlayerInfoUpdatePacket;
+import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
+
+/**
+ * Pre-built spawn packets of one corpse, shared by every viewer.
+ * Packets are immutable once built, so the same instances can be sent to any connection.
+ *
+ * @param entityId   the entity ID the packets were built for
+ * @param profile    the game profile the packets were built for
+ * @param appearance the settings the metadata was built with
+ */
+record CorpsePackets(int entityId, GameProfile profile, CorpseAppearance appearance,
+                     ClientboundPlayerInfoUpdatePacket.Entry infoEntry,
+                     ClientboundAddEntityPacket addEntity,
+                     ClientboundSetEntityDataPacket metadata) {
+
+    /**
+     * Still valid for this corpse? Profile and appearance are compared by identity, a reload
+     * or skin update creates new instances.
+     */
+    boolean matches(Corpse corpse, GameProfile currentProfile, CorpseAppearance currentAppearance) {
+        return entityId == corpse.getEntityId() && profile == currentProfile && appearance == currentAppearance;
+    }
+}
@@ -0,0 +1,317 @@
+package com.bun.hardcorerevival.corpse;
+
+import com.mojang.authlib.GameProfile;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe corpse registry.
+ * Reads are lock-free from any thread (Netty, async saves, commands), mutations are
+ * serialized on a single writer (the main thread in practice). Iteration goes through
+ * immutable snapshots that are only rebuilt after the registry actually changed.
+ *
+ * Only corpses of loaded ("resident") worlds are held in memory. For worlds that are not
+ * loaded we just remember which players have a corpse there, and their names (dormant owners).
+ */
+final class CorpseRegistry {
+
+    private final Map<UUID, Corpse> corpses = new ConcurrentHashMap<>();
+
+    // The game profiles we create, so we can respawn or remove them from tab later
+    private final Map<UUID, GameProfile> profiles = new ConcurrentHashMap<>();
+
+    // Spawn packets built once per corpse and shared by all viewers
+    private final Map<UUID, CorpsePackets> packets = new ConcurrentHashMap<>();
+
+    private final CorpseEntityIndex entityIndex = new CorpseEntityIndex();
+
+    // Chunk buckets per world, only touched while holding the writer lock
+    private final CorpseSpatialIndex spatialIndex = new CorpseSpatialIndex();
+
+    private final Set<String> residentWorlds = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, DormantOwner> dormantOwners = new ConcurrentHashMap<>();
+
+    // Bumped after every mutation, snapshots are tagged with the version they were built from
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot = new Snapshot(0, List.of());
+
+    Corpse get(UUID playerUuid) {
+        return corpses.get(playerUuid);
+    }
+
+    boolean contains(UUID playerUuid) {
+        return corpses.containsKey(playerUuid);
+    }
+
+    Corpse getByEntityId(int entityId) {
+        return entityIndex.get(entityId);
+    }
+
+    int size() {
+        return corpses.size();
+    }
+
+    boolean isResident(String worldName) {
+        return residentWorlds.contains(worldName);
+    }
+
+    /**
+     * World of a corpse that is stored but not loaded in memory, or null
+     */
+    String getDormantWorld(UUID playerUuid) {
+        DormantOwner owner = dormantOwners.get(playerUuid);
+        return owner != null ? owner.worldName() : null;
+    }
+
+    /**
+     * Name of the player owning a corpse that is stored but not loaded in memory, or null
+     */
+    String getDormantName(UUID playerUuid) {
+        DormantOwner owner = dormantOwners.get(playerUuid);
+        return owner != null ? owner.playerName() : null;
+    }
+
+    List<String> dormantNames() {
+        List<String> names = new ArrayList<>(dormantOwners.size());
+        for (DormantOwner owner : dormantOwners.values()) {
+            names.add(owner.playerName());
+        }
+        return names;
+    }
+
+    /**
+     * Owner of a dormant corpse by player name (case-insensitive), or null
+     */
+    UUID findDormantOwner(String playerName) {
+        for (Map.Entry<UUID, DormantOwner> entry : dormantOwners.entrySet()) {
+            if (entry.getValue().playerName().equalsIgnoreCase(playerName)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    int dormantCount() {
+        return dormantOwners.size();
+    }
+
+    GameProfile getProfile(UUID playerUuid) {
+        return profiles.get(playerUuid);
+    }
+
+    /**
+     * Cached spawn packets, may be stale - check {@link CorpsePackets#matches}
+     */
+    CorpsePackets getPackets(UUID playerUuid) {
+        return packets.get(playerUuid);
+    }
+
+    void putPackets(UUID playerUuid, CorpsePackets corpsePackets) {
+        packets.put(playerUuid, corpsePackets);
+    }
+
+    /**
+     * Immutable view of every corpse. Cheap to call repeatedly - the copy is only
+     * rebuilt once per mutation.
+     */
+    List<Corpse> snapshot() {
+        Snapshot current = snapshot;
+        long currentVersion = version.get();
+        if (current.version() == currentVersion) {
+            return current.corpses();
+        }
+
+        // A concurrent write may land in this copy too, the version check just rebuilds it next time
+        List<Corpse> copy = List.copyOf(corpses.values());
+        snapshot = new Snapshot(currentVersion, copy);
+        return copy;
+    }
+
+    /**
+     * Corpses in one chunk
+     */
+    synchronized List<Corpse> inChunk(String worldName, long chunkKey) {
+        List<Corpse> result = new ArrayList<>();
+        spatialIndex.forEachInChunk(worldName, chunkKey, result::add);
+        return result;
+    }
+
+    /**
+     * Corpses within {@code radius} chunks of a center chunk
+     */
+    synchronized List<Corpse> inChunkRange(String worldName, int chunkX, int chunkZ, int radius) {
+        List<Corpse> result = new ArrayList<>();
+        spatialIndex.forEachInChunkRange(worldName, chunkX, chunkZ, radius, result::add);
+        return result;
+    }
+
+    /**
+     * Up to {@code limit} corpses nearest to a position, closest first
+     */
+    synchronized List<Corpse> nearest(String worldName, double x, double y, double z, int limit, double maxDistance) {
+        return spatialIndex.nearest(worldName, x, y, z, limit, maxDistance);
+    }
+
+    /**
+     * Corpses of one world, or null if that world isn't resident (used by the persister)
+     */
+    synchronized Collection<Corpse> residentSnapshot(String worldName) {
+        if (!residentWorlds.contains(worldName)) {
+            return null;
+        }
+
+        List<Corpse> result = new ArrayList<>();
+        for (Corpse corpse : snapshot()) {
+            if (corpse.getWorldName().equals(worldName)) {
+                result.add(corpse);
+            }
+        }
+        return result;
+    }
+
+    synchronized Corpse put(Corpse corpse) {
+        dormantOwners.remove(corpse.getPlayerUuid());
+        Corpse previous = corpses.put(corpse.getPlayerUuid(), corpse);
+        if (previous != corpse) {
+            if (previous != null) {
+                spatialIndex.remove(previous);
+                if (previous.hasEntityId()) {
+                    entityIndex.remove(previous.getEntityId());
+                }
+            }
+            spatialIndex.add(corpse);
+        }
+        version.incrementAndGet();
+        return previous;
+    }
+
+    synchronized Corpse remove(UUID playerUuid) {
+        Corpse corpse = corpses.remove(playerUuid);
+        profiles.remove(playerUuid);
+        packets.remove(playerUuid);
+        if (corpse != null) {
+            spatialIndex.remove(corpse);
+            if (corpse.hasEntityId()) {
+                entityIndex.remove(corpse.getEntityId());
+            }
+            version.incrementAndGet();
+        }
+        return corpse;
+    }
+
+    /**
+     * Forget a dormant corpse
+     *
+     * @return the world it was stored in, or null
+     */
+    synchronized String removeDormant(UUID playerUuid) {
+        DormantOwner owner = dormantOwners.remove(playerUuid);
+        return owner != null ? owner.worldName() : null;
+    }
+
+    /**
+     * Remember corpses of a world that isn't loaded (ignored if it has become resident)
+     */
+    synchronized void addDormant(String worldName, Collection<Corpse> stored) {
+        if (residentWorlds.contains(worldName)) {
+            return;
+        }
+        for (Corpse corpse : stored) {
+            if (!corpses.containsKey(corpse.getPlayerUuid())) {
+                dormantOwners.put(corpse.getPlayerUuid(), new DormantOwner(worldName, corpse.getPlayerName()));
+            }
+        }
+    }
+
+    /**
+     * Make a world resident with its stored corpses. Corpses created in the meantime win.
+     *
+     * @return the corpses that were actually added
+     */
+    synchronized List<Corpse> addWorld(String worldName, Map<UUID, Corpse> loaded) {
+        residentWorlds.add(worldName);
+
+        List<Corpse> added = new ArrayList<>();
+        for (Corpse corpse : loaded.values()) {
+            dormantOwners.remove(corpse.getPlayerUuid());
+            if (corpses.putIfAbsent(corpse.getPlayerUuid(), corpse) == null) {
+                spatialIndex.add(corpse);
+                added.add(corpse);
+            }
+        }
+        version.incrementAndGet();
+        return added;
+    }
+
+    /**
+     * Drop a world's corpses from memory (they stay in storage and become dormant)
+     *
+     * @return the evicted corpses
+     */
+    synchronized List<Corpse> evictWorld(String worldName) {
+        residentWorlds.remove(worldName);
+
+        List<Corpse> evicted = new ArrayList<>();
+        for (Corpse corpse : corpses.values()) {
+            if (corpse.getWorldName().equals(worldName)) {
+                evicted.add(corpse);
+            }
+        }
+        for (Corpse corpse : evicted) {
+            corpses.remove(corpse.getPlayerUuid());
+            profiles.remove(corpse.getPlayerUuid());
+            packets.remove(corpse.getPlayerUuid());
+            if (corpse.hasEntityId()) {
+                entityIndex.remove(corpse.getEntityId());
+            }
+            dormantOwners.put(corpse.getPlayerUuid(), new DormantOwner(worldName, corpse.getPlayerName()));
+        }
+        spatialIndex.removeWorld(worldName);
+        version.incrementAndGet();
+        return evicted;
+    }
+
+    /**
+     * Drop everything (used before loading from disk again)
+     */
+    synchronized void clear() {
+        corpses.clear();
+        profiles.clear();
+        packets.clear();
+        entityIndex.clear();
+        spatialIndex.clear();
+        residentWorlds.clear();
+        dormantOwners.clear();
+        version.incrementAndGet();
+    }
+
+    synchronized void putProfile(UUID playerUuid, GameProfile profile) {
+        profiles.put(playerUuid, profile);
+    }
+
+    /**
+     * Allocate a fresh entity ID for a corpse and index it
+     */
+    synchronized int assignEntityId(Corpse corpse) {
+        if (corpse.hasEntityId()) {
+            entityIndex.remove(corpse.getEntityId());
+        }
+        int entityId = entityIndex.allocateId();
+        corpse.setEntityId(entityId);
+        entityIndex.put(entityId, corpse);
+        return entityId;
+    }
+
+    private record Snapshot(long version, List<Corpse> corpses) {
+    }
+
+    private record DormantOwner(String worldName, String playerName) {
+    }
+}
@@ -0,0 +1,206 @@
+package com.bun.hardcorerevival.corpse;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Per-world spatial index of corpses, bucketed by chunk.
+ * Keys use the same packing as {@code Chunk#getChunkKey} so they can be compared with chunk events.
+ *
+ * Not thread-safe on its own - {@link CorpseRegistry} guards it with its writer lock.
+ */
+final class CorpseSpatialIndex {
+
+    private final Map<String, WorldIndex> worlds = new HashMap<>();
+
+    static long chunkKey(int chunkX, int chunkZ) {
+        return (chunkX & 0xFFFFFFFFL) | ((chunkZ & 0xFFFFFFFFL) << 32);
+    }
+
+    static int blockToChunk(double coordinate) {
+        return (int) Math.floor(coordinate) >> 4;
+    }
+
+    void add(Corpse corpse) {
+        worlds.computeIfAbsent(corpse.getWorldName(), world -> new WorldIndex()).add(corpse);
+    }
+
+    void remove(Corpse corpse) {
+        WorldIndex index = worlds.get(corpse.getWorldName());
+        if (index != null) {
+            index.remove(corpse);
+            if (index.size == 0) {
+                worlds.remove(corpse.getWorldName());
+            }
+        }
+    }
+
+    void removeWorld(String worldName) {
+        worlds.remove(worldName);
+    }
+
+    void clear() {
+        worlds.clear();
+    }
+
+    /**
+     * Visit the corpses in one chunk
+     */
+    void forEachInChunk(String worldName, long chunkKey, Consumer<Corpse> action) {
+        WorldIndex index = worlds.get(worldName);
+        if (index == null) {
+            return;
+        }
+        List<Corpse> bucket = index.buckets.get(chunkKey);
+        if (bucket != null) {
+            bucket.forEach(action);
+        }
+    }
+
+    /**
+     * Visit the corpses in the square of chunks {@code radius} around a center chunk.
+     * Walks whichever is smaller - the square or the world's occupied buckets.
+     */
+    void forEachInChunkRange(String worldName, int centerX, int centerZ, int radius, Consumer<Corpse> action) {
+        WorldIndex index = worlds.get(worldName);
+        if (index == null) {
+            return;
+        }
+
+        long side = 2L * radius + 1;
+        if (side * side > index.buckets.size()) {
+            for (Long2ObjectMap.Entry<List<Corpse>> entry : index.buckets.long2ObjectEntrySet()) {
+                long key = entry.getLongKey();
+                int chunkX = (int) key;
+                int chunkZ = (int) (key >>> 32);
+                if (Math.abs(chunkX - centerX) <= radius && Math.abs(chunkZ - centerZ) <= radius) {
+                    entry.getValue().forEach(action);
+                }
+            }
+            return;
+        }
+
+        for (int chunkX = centerX - radius; chunkX <= centerX + radius; chunkX++) {
+            for (int chunkZ = centerZ - radius; chunkZ <= centerZ + radius; chunkZ++) {
+                List<Corpse> bucket = index.buckets.get(chunkKey(chunkX, chunkZ));
+                if (bucket != null) {
+                    bucket.forEach(action);
+                }
+            }
+        }
+    }
+
+    /**
+     * Up to {@code limit} corpses closest to a position, nearest first.
+     * Searches outward one chunk ring at a time and stops as soon as no unvisited ring
+     * can hold anything closer than the current k-th result.
+     *
+     * @param maxDistance only corpses within this many blocks (<= 0 for no limit)
+     */
+    List<Corpse> nearest(String worldName, double x, double y, double z, int limit, double maxDistance) {
+        WorldIndex index = worlds.get(worldName);
+        if (index == null || limit <= 0) {
+            return List.of();
+        }
+
+        double maxDistanceSq = maxDistance > 0 ? maxDistance * maxDistance : Double.MAX_VALUE;
+
+        // Max-heap on distance holding the best candidates so far
+        PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1,
+            Comparator.comparingDouble(Candidate::distanceSq).reversed());
+
+        int centerX = blockToChunk(x);
+        int centerZ = blockToChunk(z);
+        int visited = 0;
+        for (int ring = 0; visited < index.size; ring++) {
+            // Closest any block in this ring can be (horizontal only, so it's a lower bound)
+            double ringDistance = Math.max(0, (ring - 1) * 16.0);
+            double ringDistanceSq = ringDistance * ringDistance;
+            if (ringDistanceSq > maxDistanceSq) {
+                break;
+            }
+            if (best.size() == limit && ringDistanceSq > best.peek().distanceSq()) {
+                break;
+            }
+            // A ring wider than the whole index is cheaper to finish with a full scan
+            if (ring > 0 && (long) ring * 8 > index.buckets.size()) {
+                best.clear();
+                for (List<Corpse> bucket : index.buckets.values()) {
+                    offerAll(bucket, x, y, z, limit, maxDistanceSq, best);
+                }
+                break;
+            }
+
+            for (int dx = -ring; dx <= ring; dx++) {
+                for (int dz = -ring; dz <= ring; dz++) {
+                    if (Math.abs(dx) != ring && Math.abs(dz) != ring) {
+                        continue;
+                    }
+                    List<Corpse> bucket = index.buckets.get(chunkKey(centerX + dx, centerZ + dz));
+                    if (bucket != null) {
+                        visited += bucket.size();
+                        offerAll(bucket, x, y, z, limit, maxDistanceSq, best);
+                    }
+                }
+            }
+        }
+
+        List<Corpse> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            result.add(best.poll().corpse());
+        }
+        return result.reversed();
+    }
+
+    private static void offerAll(List<Corpse> bucket, double x, double y, double z, int limit,
+                                 double maxDistanceSq, PriorityQueue<Candidate> best) {
+        for (Corpse corpse : bucket) {
+            double distanceSq = corpse.distanceSquared(x, y, z);
+            if (distanceSq > maxDistanceSq) {
+                continue;
+            }
+            if (best.size() < limit) {
+                best.add(new Candidate(corpse, distanceSq));
+            } else if (distanceSq < best.peek().distanceSq()) {
+                best.poll();
+                best.add(new Candidate(corpse, distanceSq));
+            }
+        }
+    }
+
+    private static final class WorldIndex {
+        private final Long2ObjectMap<List<Corpse>> buckets = new Long2ObjectOpenHashMap<>();
+        private int size;
+
+        void add(Corpse corpse) {
+            buckets.computeIfAbsent(key(corpse), key -> new ArrayList<>(2)).add(corpse);
+            size++;
+        }
+
+        void remove(Corpse corpse) {
+            long key = key(corpse);
+            List<Corpse> bucket = buckets.get(key);
+            if (bucket != null && bucket.remove(corpse)) {
+                size--;
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+
+        private static long key(Corpse corpse) {
+            return chunkKey(corpse.getChunkX(), corpse.getChunkZ());
+        }
+    }
+
+    private record Candidate(Corpse corpse, double distanceSq) {
+    }
+}
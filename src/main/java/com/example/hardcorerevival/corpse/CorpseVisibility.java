@@ -0,0 +1,249 @@
+package com.bun.hardcorerevival.corpse;
+
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Decides which viewers see which corpse NPCs.
+ * A corpse is shown once the client has its chunk (Paper's chunk tracking), optionally
+ * limited to a radius in chunks. A per-viewer ledger of shown entity IDs means spawn
+ * packets are never sent twice and despawns only go to players that actually see the corpse.
+ * Corpses that become visible together are handed to the spawner as one batch per viewer.
+ *
+ * Main thread only.
+ */
+final class CorpseVisibility {
+
+    private final CorpseRegistry registry;
+    private final BiConsumer<Player, List<Corpse>> spawner;
+    private final ObjIntConsumer<Player> despawner;
+
+    private final Map<UUID, IntSet> shown = new HashMap<>();
+
+    // Reused for viewer positions so per-corpse range checks don't allocate (world cleared after use)
+    private final Location scratch = new Location(null, 0, 0, 0);
+
+    // Chunks; 0 = everything the client has loaded
+    private int viewRadius;
+
+    CorpseVisibility(CorpseRegistry registry, BiConsumer<Player, List<Corpse>> spawner, ObjIntConsumer<Player> despawner) {
+        this.registry = registry;
+        this.spawner = spawner;
+        this.despawner = despawner;
+    }
+
+    /**
+     * @return whether the radius changed
+     */
+    boolean setViewRadius(int viewRadius) {
+        int previous = this.viewRadius;
+        this.viewRadius = Math.max(0, viewRadius);
+        return previous != this.viewRadius;
+    }
+
+    boolean usesViewRadius() {
+        return viewRadius > 0;
+    }
+
+    /**
+     * Show a newly spawned corpse to everyone in range
+     */
+    void showToAll(Corpse corpse) {
+        World world = corpse.getWorld();
+        if (world == null || !corpse.hasEntityId()) {
+            return;
+        }
+        for (Player viewer : world.getPlayers()) {
+            if (canSee(viewer, corpse) && markShown(viewer, corpse)) {
+                spawner.accept(viewer, List.of(corpse));
+            }
+        }
+    }
+
+    /**
+     * Despawn a corpse for the players currently seeing it
+     */
+    void hideFromAll(Corpse corpse) {
+        if (!corpse.hasEntityId()) {
+            return;
+        }
+        int entityId = corpse.getEntityId();
+        for (Map.Entry<UUID, IntSet> entry : shown.entrySet()) {
+            if (entry.getValue().remove(entityId)) {
+                Player viewer = Bukkit.getPlayer(entry.getKey());
+                if (viewer != null) {
+                    despawner.accept(viewer, entityId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Despawn every corpse for every viewer (plugin disable / reload).
+     * The despawner batches these, the caller flushes.
+     */
+    void hideAll() {
+        for (Map.Entry<UUID, IntSet> entry : shown.entrySet()) {
+            Player viewer = Bukkit.getPlayer(entry.getKey());
+            if (viewer != null) {
+                IntIterator ids = entry.getValue().iterator();
+                while (ids.hasNext()) {
+                    despawner.accept(viewer, ids.nextInt());
+                }
+            }
+        }
+        shown.clear();
+    }
+
+    /**
+     * Visit every online viewer with the entity IDs they currently see
+     */
+    void forEachViewer(BiConsumer<Player, IntSet> action) {
+        for (Map.Entry<UUID, IntSet> entry : shown.entrySet()) {
+            Player viewer = Bukkit.getPlayer(entry.getKey());
+            if (viewer != null && !entry.getValue().isEmpty()) {
+                action.accept(viewer, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Drop a corpse from the ledger without sending anything (its world was unloaded)
+     */
+    void forget(Corpse corpse) {
+        if (!corpse.hasEntityId()) {
+            return;
+        }
+        for (IntSet ids : shown.values()) {
+            ids.remove(corpse.getEntityId());
+        }
+    }
+
+    /**
+     * The client dropped all entities (world change, respawn) - start over for this viewer
+     */
+    void resetViewer(Player viewer) {
+        shown.remove(viewer.getUniqueId());
+    }
+
+    void removeViewer(UUID viewerUuid) {
+        shown.remove(viewerUuid);
+    }
+
+    /**
+     * Client received a chunk - show the corpses in it
+     */
+    void onChunkSent(Player viewer, World world, int chunkX, int chunkZ) {
+        // Chunks of a world the player already left (or is about to) show nothing
+        if (!world.equals(viewer.getWorld()) || !inRadius(viewer, chunkX, chunkZ)) {
+            return;
+        }
+        List<Corpse> batch = new ArrayList<>();
+        for (Corpse corpse : registry.inChunk(world.getName(), CorpseSpatialIndex.chunkKey(chunkX, chunkZ))) {
+            if (markShown(viewer, corpse)) {
+                batch.add(corpse);
+            }
+        }
+        if (!batch.isEmpty()) {
+            spawner.accept(viewer, batch);
+        }
+    }
+
+    /**
+     * Client forgot a chunk - despawn the corpses we showed in it
+     */
+    void onChunkForgotten(Player viewer, World world, int chunkX, int chunkZ) {
+        IntSet ids = shown.get(viewer.getUniqueId());
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        // The chunk's own world - around a dimension change it isn't the viewer's
+        for (Corpse corpse : registry.inChunk(world.getName(), CorpseSpatialIndex.chunkKey(chunkX, chunkZ))) {
+            hide(viewer, corpse.getEntityId());
+        }
+    }
+
+    /**
+     * Bring a viewer up to date: show what's in range and loaded, hide what went out of range
+     */
+    void refresh(Player viewer) {
+        viewer.getLocation(scratch).setWorld(null);
+        int centerX = scratch.getBlockX() >> 4;
+        int centerZ = scratch.getBlockZ() >> 4;
+
+        IntSet ids = shown.get(viewer.getUniqueId());
+        if (usesViewRadius() && ids != null && !ids.isEmpty()) {
+            IntIterator iterator = ids.iterator();
+            while (iterator.hasNext()) {
+                int entityId = iterator.nextInt();
+                Corpse corpse = registry.getByEntityId(entityId);
+                if (corpse == null || !inRadius(centerX, centerZ, corpse)) {
+                    iterator.remove();
+                    despawner.accept(viewer, entityId);
+                }
+            }
+        }
+
+        int radius = usesViewRadius() ? viewRadius : viewer.getSendViewDistance();
+        List<Corpse> batch = new ArrayList<>();
+        for (Corpse corpse : registry.inChunkRange(viewer.getWorld().getName(), centerX, centerZ, radius)) {
+            if (canSee(viewer, corpse) && markShown(viewer, corpse)) {
+                batch.add(corpse);
+            }
+        }
+        if (!batch.isEmpty()) {
+            spawner.accept(viewer, batch);
+        }
+    }
+
+    private boolean canSee(Player viewer, Corpse corpse) {
+        int chunkX = corpse.getChunkX();
+        int chunkZ = corpse.getChunkZ();
+        return viewer.isChunkSent(CorpseSpatialIndex.chunkKey(chunkX, chunkZ)) && inRadius(viewer, chunkX, chunkZ);
+    }
+
+    private boolean inRadius(Player viewer, int chunkX, int chunkZ) {
+        if (!usesViewRadius()) {
+            return true;
+        }
+        viewer.getLocation(scratch).setWorld(null);
+        int centerX = scratch.getBlockX() >> 4;
+        int centerZ = scratch.getBlockZ() >> 4;
+        return Math.abs(chunkX - centerX) <= viewRadius && Math.abs(chunkZ - centerZ) <= viewRadius;
+    }
+
+    private boolean inRadius(int centerX, int centerZ, Corpse corpse) {
+        return Math.abs(corpse.getChunkX() - centerX) <= viewRadius
+            && Math.abs(corpse.getChunkZ() - centerZ) <= viewRadius;
+    }
+
+    /**
+     * Record a corpse as shown to a viewer
+     *
+     * @return false if the viewer already sees it
+     */
+    private boolean markShown(Player viewer, Corpse corpse) {
+        return corpse.hasEntityId()
+            && shown.computeIfAbsent(viewer.getUniqueId(), uuid -> new IntOpenHashSet()).add(corpse.getEntityId());
+    }
+
+    private void hide(Player viewer, int entityId) {
+        IntSet ids = shown.get(viewer.getUniqueId());
+        if (ids != null && ids.remove(entityId)) {
+            despawner.accept(viewer, entityId);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.bun.hardcorerevival.corpse;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Collects corpse entity IDs to destroy per viewer and sends them as one destroy packet
+ * per viewer on the next tick, so mass removals cost one packet per viewer.
+ *
+ * Main thread only.
+ */
+final class DespawnBatcher {
+
+    private final JavaPlugin plugin;
+    private final BiConsumer<Player, IntList> sender;
+
+    private final Map<UUID, IntSet> pending = new HashMap<>();
+    private boolean flushScheduled;
+
+    DespawnBatcher(JavaPlugin plugin, BiConsumer<Player, IntList> sender) {
+        this.plugin = plugin;
+        this.sender = sender;
+    }
+
+    /**
+     * Queue an entity to destroy for a viewer
+     */
+    void queue(UUID viewerUuid, int entityId) {
+        pending.computeIfAbsent(viewerUuid, uuid -> new IntLinkedOpenHashSet()).add(entityId);
+
+        // While disabling we can't schedule - the caller flushes directly
+        if (!flushScheduled && plugin.isEnabled()) {
+            flushScheduled = true;
+            Bukkit.getScheduler().runTask(plugin, this::flush);
+        }
+    }
+
+    /**
+     * Drop a queued destroy, the entity is being spawned for the viewer again
+     */
+    void cancel(UUID viewerUuid, int entityId) {
+        IntSet ids = pending.get(viewerUuid);
+        if (ids != null && ids.remove(entityId) && ids.isEmpty()) {
+            pending.remove(viewerUuid);
+        }
+    }
+
+    /**
+     * Send everything queued now, one packet per viewer
+     */
+    void flush() {
+        flushScheduled = false;
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        for (Map.Entry<UUID, IntSet> entry : pending.entrySet()) {
+            Player viewer = Bukkit.getPlayer(entry.getKey());
+            if (viewer != null && !entry.getValue().isEmpty()) {
+                sender.accept(viewer, new IntArrayList(entry.getValue()));
+            }
+        }
+        pending.clear();
+    }
+
+    void removeViewer(UUID viewerUuid) {
+        pending.remove(viewerUuid);
+    }
+}
@@ -0,0 +1,59 @@
+package com.bun.hardcorerevival.corpse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Which corpse game profiles each viewer's client currently has in its player info list.
+ * Profiles are added unlisted (hidden from tab), so they never need a timed removal -
+ * they are only removed when the corpse goes away. Player info survives respawns and
+ * world changes, so a viewer's entries are only dropped when they quit.
+ *
+ * Main thread only.
+ */
+final class ProfileRegistrations {
+
+    private final Map<UUID, Set<UUID>> registered = new HashMap<>();
+
+    /**
+     * @return true if the viewer didn't have the profile yet (an add must be sent)
+     */
+    boolean register(UUID viewerUuid, UUID profileId) {
+        return registered.computeIfAbsent(viewerUuid, uuid -> new HashSet<>()).add(profileId);
+    }
+
+    /**
+     * Forget a profile for every viewer
+     *
+     * @return the viewers that had it registered (a remove must be sent to them)
+     */
+    List<UUID> unregister(UUID profileId) {
+        List<UUID> viewers = new ArrayList<>();
+        for (Map.Entry<UUID, Set<UUID>> entry : registered.entrySet()) {
+            if (entry.getValue().remove(profileId)) {
+                viewers.add(entry.getKey());
+            }
+        }
+        return viewers;
+    }
+
+    /**
+     * Forget everything
+     *
+     * @return each viewer's registered profiles
+     */
+    Map<UUID, Set<UUID>> clear() {
+        Map<UUID, Set<UUID>> previous = new HashMap<>(registered);
+        registered.clear();
+        return previous;
+    }
+
+    void removeViewer(UUID viewerUuid) {
+        registered.remove(viewerUuid);
+    }
+}
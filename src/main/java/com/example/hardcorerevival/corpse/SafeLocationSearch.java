@@ -0,0 +1,255 @@
+package com.bun.hardcorerevival.corpse;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.HeightMap;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Searches for a safe corpse spot around a death location without blocking the main thread.
+ * The chunks in range are fetched with Paper's async chunk API (never generated) and copied
+ * into ChunkSnapshots on the main thread; the actual block scan runs on an async task.
+ *
+ * Columns are checked nearest first. Each column is tried on its surface (from the
+ * MOTION_BLOCKING_NO_LEAVES heightmap) and around the death height, but never above the
+ * surface. Block reads are capped by a budget; once it runs out only surface spots are
+ * checked, so the worst case stays at budget + 2 reads per column.
+ */
+final class SafeLocationSearch {
+
+    // Per-Material flags, indexed by ordinal, so a block check is two array reads
+    private static final byte SOLID = 1;
+    private static final byte HAZARD = 2;
+    private static final byte[] BLOCK_FLAGS = buildBlockFlags();
+
+    private final JavaPlugin plugin;
+    private final Location origin;
+    private final int radius;
+    private final int readBudget;
+    private final int minHeight;
+    private final int maxHeight;
+    private final boolean hasCeiling;
+
+    // Only written on the main thread before the scan starts, then read-only
+    private final Long2ObjectMap<ChunkSnapshot> snapshots = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectMap<int[]> heightmaps = new Long2ObjectOpenHashMap<>();
+
+    private int reads;
+
+    private SafeLocationSearch(JavaPlugin plugin, Location origin, int radius, int readBudget) {
+        this.plugin = plugin;
+        this.origin = origin.clone();
+        this.radius = radius;
+        this.readBudget = readBudget;
+        this.minHeight = origin.getWorld().getMinHeight();
+        this.maxHeight = origin.getWorld().getMaxHeight();
+        // The heightmap of a world with a roof (nether) just finds the roof
+        this.hasCeiling = origin.getWorld().hasCeiling();
+    }
+
+    /**
+     * Start a search. Must be called on the main thread.
+     *
+     * @param readBudget block reads allowed for the full scan before falling back to surface spots only
+     * @return completes on the main thread with a safe location, or null if none was found
+     */
+    static CompletableFuture<Location> find(JavaPlugin plugin, Location origin, int radius, int readBudget) {
+        return new SafeLocationSearch(plugin, origin, radius, readBudget).start();
+    }
+
+    /**
+     * Whether a corpse can lie in a block of {@code feet} on top of a block of {@code below}.
+     * The one safety rule for both the search and the re-check of a known spot.
+     */
+    static boolean isSafeSpot(Material feet, Material below) {
+        return canLieIn(feet) && canLieOn(below);
+    }
+
+    /**
+     * Whether a corpse can lie in a block of this type (not solid, nothing that hurts or traps)
+     */
+    static boolean canLieIn(Material type) {
+        return (BLOCK_FLAGS[type.ordinal()] & (SOLID | HAZARD)) == 0;
+    }
+
+    /**
+     * Whether a corpse can lie on a block of this type (solid and harmless)
+     */
+    static boolean canLieOn(Material type) {
+        return (BLOCK_FLAGS[type.ordinal()] & (SOLID | HAZARD)) == SOLID;
+    }
+
+    private static byte[] buildBlockFlags() {
+        Material[] materials = Material.values();
+        byte[] flags = new byte[materials.length];
+        for (Material type : materials) {
+            if (type.isLegacy() || !type.isBlock()) {
+                continue;
+            }
+            byte typeFlags = 0;
+            if (type.isSolid()) {
+                typeFlags |= SOLID;
+            }
+            switch (type) {
+                case LAVA, MAGMA_BLOCK, CACTUS, CAMPFIRE, SOUL_CAMPFIRE, FIRE, SOUL_FIRE,
+                     COBWEB, SWEET_BERRY_BUSH, POWDER_SNOW, WITHER_ROSE -> typeFlags |= HAZARD;
+                default -> {
+                }
+            }
+            flags[type.ordinal()] = typeFlags;
+        }
+        return flags;
+    }
+
+    private CompletableFuture<Location> start() {
+        World world = origin.getWorld();
+        int minChunkX = (origin.getBlockX() - radius) >> 4;
+        int maxChunkX = (origin.getBlockX() + radius) >> 4;
+        int minChunkZ = (origin.getBlockZ() - radius) >> 4;
+        int maxChunkZ = (origin.getBlockZ() + radius) >> 4;
+
+        List<CompletableFuture<?>> loads = new ArrayList<>();
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                long key = CorpseSpatialIndex.chunkKey(chunkX, chunkZ);
+                // Paper completes these on the main thread; missing chunks are not generated
+                loads.add(world.getChunkAtAsync(chunkX, chunkZ, false).thenAccept(chunk -> {
+                    if (chunk == null) {
+                        return;
+                    }
+                    snapshots.put(key, chunk.getChunkSnapshot(false, false, false));
+                    if (!hasCeiling) {
+                        heightmaps.put(key, captureHeightmap(world, chunk.getX(), chunk.getZ()));
+                    }
+                }));
+            }
+        }
+
+        CompletableFuture<Location> result = new CompletableFuture<>();
+        CompletableFuture.allOf(loads.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            if (!plugin.isEnabled()) {
+                result.complete(null);
+                return;
+            }
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                Location found = search();
+                if (plugin.isEnabled()) {
+                    Bukkit.getScheduler().runTask(plugin, () -> result.complete(found));
+                }
+            });
+        });
+        return result;
+    }
+
+    /**
+     * Highest non-leaf motion-blocking block per column, index (z << 4) | x.
+     * The chunk is loaded at this point, so these are plain heightmap reads.
+     */
+    private static int[] captureHeightmap(World world, int chunkX, int chunkZ) {
+        int[] heights = new int[256];
+        int baseX = chunkX << 4;
+        int baseZ = chunkZ << 4;
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                heights[(z << 4) | x] = world.getHighestBlockYAt(baseX + x, baseZ + z, HeightMap.MOTION_BLOCKING_NO_LEAVES);
+            }
+        }
+        return heights;
+    }
+
+    private Location search() {
+        int originX = origin.getBlockX();
+        int originY = origin.getBlockY();
+        int originZ = origin.getBlockZ();
+        // Void deaths: the death height means nothing, any surface will do
+        boolean originInWorld = originY > minHeight && originY < maxHeight;
+
+        for (int column : columnsByDistance()) {
+            int dx = (short) (column >> 16);
+            int dz = (short) column;
+            int x = originX + dx;
+            int z = originZ + dz;
+
+            int[] heights = heightmaps.get(CorpseSpatialIndex.chunkKey(x >> 4, z >> 4));
+            int surface = heights != null ? heights[((z & 15) << 4) | (x & 15)] + 1 : maxHeight;
+
+            // 1. Seeded: lying on top of the column
+            if (heights != null && (!originInWorld || Math.abs(surface - originY) <= radius)
+                && isSafe(x, surface, z)) {
+                return spot(x, surface, z);
+            }
+
+            // 2. Around the death height, further up/down the further out we are (like the old ring search)
+            if (!originInWorld || reads >= readBudget) {
+                continue;
+            }
+            int window = Math.max(Math.abs(dx), Math.abs(dz));
+            for (int dy = 0; dy <= window && reads < readBudget; dy++) {
+                int up = originY + dy;
+                if (up < surface && isSafe(x, up, z)) {
+                    return spot(x, up, z);
+                }
+                int down = originY - dy;
+                if (dy > 0 && down < surface && isSafe(x, down, z)) {
+                    return spot(x, down, z);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Column offsets within the radius, nearest first, packed as (dx << 16) | (dz & 0xFFFF)
+     */
+    private int[] columnsByDistance() {
+        int side = radius * 2 + 1;
+        long[] keyed = new long[side * side];
+        int count = 0;
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dz = -radius; dz <= radius; dz++) {
+                int distanceSq = dx * dx + dz * dz;
+                if (distanceSq <= radius * radius) {
+                    keyed[count++] = ((long) distanceSq << 32) | ((dx << 16) | (dz & 0xFFFF)) & 0xFFFFFFFFL;
+                }
+            }
+        }
+        Arrays.sort(keyed, 0, count);
+
+        int[] columns = new int[count];
+        for (int i = 0; i < count; i++) {
+            columns[i] = (int) keyed[i];
+        }
+        return columns;
+    }
+
+    private Location spot(int x, int y, int z) {
+        return new Location(origin.getWorld(), x + 0.5, y, z + 0.5, origin.getYaw(), origin.getPitch());
+    }
+
+    private boolean isSafe(int x, int y, int z) {
+        // Void, or no room for the block below
+        if (y < minHeight + 1 || y >= maxHeight) return false;
+
+        // Feet must be free (air, water, etc. but not lava), the block below solid and harmless
+        Material feet = typeAt(x, y, z);
+        if (feet == null || !canLieIn(feet)) return false;
+        Material below = typeAt(x, y - 1, z);
+        return below != null && isSafeSpot(feet, below);
+    }
+
+    private Material typeAt(int x, int y, int z) {
+        reads++;
+        ChunkSnapshot snapshot = snapshots.get(CorpseSpatialIndex.chunkKey(x >> 4, z >> 4));
+        return snapshot != null ? snapshot.getBlockType(x & 15, y, z & 15) : null;
+    }
+}
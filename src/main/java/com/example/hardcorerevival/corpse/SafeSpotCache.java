@@ -0,0 +1,147 @@
+package com.bun.hardcorerevival.corpse;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.bukkit.Location;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recently found safe corpse spots, keyed by the chunk the player died in.
+ * Deaths in hotspots (mob farms, lava lakes, arenas) reuse the spot instead of searching again.
+ * Bounded LRU; an entry is dropped when a block is placed or broken in the chunk its spot
+ * lies in, and callers still revalidate the spot before using it (which covers every other
+ * kind of block change).
+ *
+ * Main thread only.
+ */
+final class SafeSpotCache {
+
+    private final Map<Key, Location> spots = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Location> eldest) {
+            if (size() <= maxEntries) {
+                return false;
+            }
+            unindex(eldest.getKey(), eldest.getValue());
+            return true;
+        }
+    };
+
+    // World -> chunk of a spot -> death chunks using it, so block events can invalidate without allocating
+    private final Map<String, Long2ObjectMap<Set<Key>>> bySpotChunk = new HashMap<>();
+
+    private int maxEntries;
+
+    /**
+     * Resize the cache, dropping its contents if the size changed
+     */
+    void setMaxEntries(int maxEntries) {
+        int size = Math.max(0, maxEntries);
+        if (size != this.maxEntries) {
+            this.maxEntries = size;
+            clear();
+        }
+    }
+
+    /**
+     * @return a copy of the cached spot for deaths in this chunk, or null
+     */
+    Location get(Location death) {
+        if (maxEntries == 0) {
+            return null;
+        }
+        Location spot = spots.get(key(death));
+        return spot != null ? spot.clone() : null;
+    }
+
+    void put(Location death, Location spot) {
+        if (maxEntries == 0 || !death.getWorld().equals(spot.getWorld())) {
+            return;
+        }
+        Key key = key(death);
+        Location previous = spots.remove(key);
+        if (previous != null) {
+            unindex(key, previous);
+        }
+        spots.put(key, spot.clone());
+        bySpotChunk.computeIfAbsent(key.worldName(), world -> new Long2ObjectOpenHashMap<>())
+            .computeIfAbsent(spotChunk(spot), chunk -> new HashSet<>()).add(key);
+    }
+
+    void remove(Location death) {
+        Key key = key(death);
+        Location spot = spots.remove(key);
+        if (spot != null) {
+            unindex(key, spot);
+        }
+    }
+
+    /**
+     * A block changed - drop every spot in that chunk
+     */
+    void invalidateChunk(String worldName, int chunkX, int chunkZ) {
+        Long2ObjectMap<Set<Key>> chunks = bySpotChunk.get(worldName);
+        if (chunks == null) {
+            return;
+        }
+        Set<Key> keys = chunks.remove(CorpseSpatialIndex.chunkKey(chunkX, chunkZ));
+        if (keys == null) {
+            return;
+        }
+        for (Key key : keys) {
+            spots.remove(key);
+        }
+        if (chunks.isEmpty()) {
+            bySpotChunk.remove(worldName);
+        }
+    }
+
+    void removeWorld(String worldName) {
+        bySpotChunk.remove(worldName);
+        Iterator<Key> keys = spots.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().worldName().equals(worldName)) {
+                keys.remove();
+            }
+        }
+    }
+
+    void clear() {
+        spots.clear();
+        bySpotChunk.clear();
+    }
+
+    private void unindex(Key key, Location spot) {
+        Long2ObjectMap<Set<Key>> chunks = bySpotChunk.get(key.worldName());
+        if (chunks == null) {
+            return;
+        }
+        long chunk = spotChunk(spot);
+        Set<Key> keys = chunks.get(chunk);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            chunks.remove(chunk);
+            if (chunks.isEmpty()) {
+                bySpotChunk.remove(key.worldName());
+            }
+        }
+    }
+
+    private static Key key(Location death) {
+        return new Key(death.getWorld().getName(), CorpseSpatialIndex.chunkKey(
+            CorpseSpatialIndex.blockToChunk(death.getX()), CorpseSpatialIndex.blockToChunk(death.getZ())));
+    }
+
+    private static long spotChunk(Location spot) {
+        return CorpseSpatialIndex.chunkKey(CorpseSpatialIndex.blockToChunk(spot.getX()),
+            CorpseSpatialIndex.blockToChunk(spot.getZ()));
+    }
+
+    private record Key(String worldName, long chunkKey) {
+    }
+}
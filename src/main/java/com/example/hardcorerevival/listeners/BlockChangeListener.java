@@ -0,0 +1,34 @@
+package com.bun.hardcorerevival.listeners;
+
+import com.bun.hardcorerevival.HardcoreRevival;
+import com.bun.hardcorerevival.corpse.CorpseManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+
+/**
+ * Invalidates cached safe corpse spots when players build or dig around them.
+ * Other changes (physics, fluids, explosions) are caught by the safety re-check a cached
+ * spot gets before it is used; listening to BlockPhysicsEvent would make Paper build an
+ * event for every neighbour update on the server.
+ */
+public class BlockChangeListener implements Listener {
+
+    private final CorpseManager corpseManager;
+
+    public BlockChangeListener(HardcoreRevival plugin) {
+        this.corpseManager = plugin.getCorpseManager();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        corpseManager.onBlockChanged(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        corpseManager.onBlockChanged(event.getBlock());
+    }
+}
@@ -15,7 +15,9 @@ import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerRespawnEvent;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -30,7 +32,11 @@ public class DeathListener implements Listener {
     private final Map<UUID, Location> pendingRevivalLocations = new HashMap<>();
     
     // Store entity IDs that need to be despawned for specific players (corpse removed while they were on Game Over screen)
-    private final Map<UUID, Integer> pendingCorpseDespawns = new HashMap<>();
+    private final Map<UUID, Set<Integer>> pendingCorpseDespawns = new HashMap<>();
+
+    // Players whose corpse expired while they were offline or on the Game Over screen,
+    // told so instead of being welcomed back as revived
+    private final Set<UUID> releasedByExpiry = new HashSet<>();
 
     public DeathListener(HardcoreRevival plugin) {
         this.plugin = plugin;
@@ -62,12 +68,47 @@ public class DeathListener implements Listener {
     
     /**
      * Store an entity ID that needs to be despawned for a player when they respawn
-     * (Used when corpse is removed while player is on Game Over screen)
+     * (Used when corpse is removed while player is on Game Over screen, several can queue up)
      */
     public void setPendingCorpseDespawn(UUID playerUuid, int entityId) {
         if (entityId > 0) {
-            pendingCorpseDespawns.put(playerUuid, entityId);
+            pendingCorpseDespawns.computeIfAbsent(playerUuid, uuid -> new HashSet<>()).add(entityId);
+        }
+    }
+
+    /**
+     * A corpse expired (corpse.expire-time) before anyone revived it. Its player is released:
+     * back in survival at their own respawn point, without the revival bonuses.
+     * Offline players are released when they join (spectator without a corpse).
+     */
+    public void onCorpseExpired(Corpse corpse) {
+        Player player = plugin.getServer().getPlayer(corpse.getPlayerUuid());
+        if (player == null) {
+            releasedByExpiry.add(corpse.getPlayerUuid());
+            return;
+        }
+
+        if (player.isDead()) {
+            // Game Over screen: the client won't get the destroy packet, and they are released on respawn
+            setPendingCorpseDespawn(player.getUniqueId(), corpse.getEntityId());
+            releasedByExpiry.add(player.getUniqueId());
+            return;
         }
+
+        releaseToSpawn(player);
+        player.sendMessage(ChatColor.YELLOW + "Nobody revived you in time - your corpse has decayed and you are back at your spawn point.");
+    }
+
+    /**
+     * Back in survival at the player's own respawn point
+     */
+    private void releaseToSpawn(Player player) {
+        Location respawnLocation = player.getRespawnLocation();
+        if (respawnLocation == null) {
+            respawnLocation = plugin.getServer().getWorlds().get(0).getSpawnLocation();
+        }
+        player.teleport(respawnLocation);
+        player.setGameMode(GameMode.SURVIVAL);
     }
 
     @EventHandler(priority = EventPriority.HIGHEST)
@@ -82,29 +123,34 @@ public class DeathListener implements Listener {
 
         // Create the corpse
         Corpse corpse = corpseManager.createCorpse(player, deathLocation);
-        Location corpseLocation = corpse.getLocation();
 
-        // Send death coordinates to the player
-        String message = plugin.getConfig().getString("messages.death-coordinates",
-            "&cYou died at &e{x}, {y}, {z} &cin &e{world}&c. Find someone to revive you!");
-        
-        message = message
-            .replace("{x}", String.valueOf(corpseLocation.getBlockX()))
-            .replace("{y}", String.valueOf(corpseLocation.getBlockY()))
-            .replace("{z}", String.valueOf(corpseLocation.getBlockZ()))
-            .replace("{world}", corpseLocation.getWorld().getName());
-        
-        // Send message after a short delay (after respawn)
-        final String finalMessage = ChatColor.translateAlternateColorCodes('&', message);
+        // Send message after a short delay (after respawn). By then a corpse that died in the
+        // void or lava has usually been moved to a safe spot, so look it up again.
         plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-            if (player.isOnline()) {
-                player.sendMessage(finalMessage);
+            if (!player.isOnline()) {
+                return;
+            }
+            Corpse current = corpseManager.getCorpse(player.getUniqueId());
+            if (current == null) {
+                return;
             }
+
+            // Send death coordinates to the player
+            String message = plugin.getConfig().getString("messages.death-coordinates",
+                "&cYou died at &e{x}, {y}, {z} &cin &e{world}&c. Find someone to revive you!");
+
+            message = message
+                .replace("{x}", String.valueOf(current.getBlockX()))
+                .replace("{y}", String.valueOf(current.getBlockY()))
+                .replace("{z}", String.valueOf(current.getBlockZ()))
+                .replace("{world}", current.getWorldName());
+
+            player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
         }, 20L); // 1 second delay
 
         plugin.getLogger().info(player.getName() + " died at " + 
             deathLocation.getBlockX() + ", " + deathLocation.getBlockY() + ", " + deathLocation.getBlockZ() +
-            " - Corpse spawned at " + corpseLocation.getBlockX() + ", " + corpseLocation.getBlockY() + ", " + corpseLocation.getBlockZ());
+            " - Corpse spawned at " + corpse.getBlockX() + ", " + corpse.getBlockY() + ", " + corpse.getBlockZ());
     }
 
     @EventHandler(priority = EventPriority.HIGHEST)
@@ -112,11 +158,11 @@ public class DeathListener implements Listener {
         Player player = event.getPlayer();
         
         // Check if there's a corpse entity that needs to be despawned for this player
-        Integer pendingDespawnId = pendingCorpseDespawns.remove(player.getUniqueId());
-        if (pendingDespawnId != null) {
+        Set<Integer> pendingDespawnIds = pendingCorpseDespawns.remove(player.getUniqueId());
+        if (pendingDespawnIds != null) {
             plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
                 if (player.isOnline()) {
-                    corpseManager.sendDespawnPacketToPlayer(player, pendingDespawnId);
+                    corpseManager.sendDespawnPacketsToPlayer(player, pendingDespawnIds);
                 }
             }, 5L);
         }
@@ -157,11 +203,11 @@ public class DeathListener implements Listener {
         // Check if player has a corpse (meaning they died and weren't revived yet)
         if (corpseManager.hasCorpse(player.getUniqueId())) {
             Corpse corpse = corpseManager.getCorpse(player.getUniqueId());
-            Location corpseLocation = corpse != null ? corpse.getLocation() : null;
+            Location respawnLocation = corpse != null ? corpse.getLocation(1.5) : null;
             
             // Set respawn at corpse location
-            if (corpseLocation != null) {
-                event.setRespawnLocation(corpseLocation.clone().add(0, 1.5, 0));
+            if (respawnLocation != null) {
+                event.setRespawnLocation(respawnLocation);
             }
             
             // Set to spectator mode after respawn
@@ -171,7 +217,21 @@ public class DeathListener implements Listener {
                     player.sendMessage(ChatColor.GRAY + "You are now a spectator. Have another player revive your corpse!");
                 }
             }, 1L);
+            return;
         }
+
+        // Corpse expired or was removed while they were on the Game Over screen - a hardcore
+        // respawn would leave them a spectator with nothing to be revived from
+        boolean expired = releasedByExpiry.remove(player.getUniqueId());
+        plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+            if (player.isOnline() && player.getGameMode() == GameMode.SPECTATOR
+                && !corpseManager.hasCorpse(player.getUniqueId())) {
+                player.setGameMode(GameMode.SURVIVAL);
+                player.sendMessage(expired
+                    ? ChatColor.YELLOW + "Nobody revived you in time - your corpse has decayed."
+                    : ChatColor.GREEN + "Your corpse is gone - you are back in the game.");
+            }
+        }, 1L);
     }
 
     @EventHandler(priority = EventPriority.HIGHEST)
@@ -191,14 +251,16 @@ public class DeathListener implements Listener {
         }
         
         // Check if there's a corpse entity that needs to be despawned for this player
-        Integer pendingDespawnId = pendingCorpseDespawns.remove(player.getUniqueId());
-        if (pendingDespawnId != null) {
+        Set<Integer> pendingDespawnIds = pendingCorpseDespawns.remove(player.getUniqueId());
+        if (pendingDespawnIds != null) {
             plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
                 if (player.isOnline()) {
-                    corpseManager.sendDespawnPacketToPlayer(player, pendingDespawnId);
+                    corpseManager.sendDespawnPacketsToPlayer(player, pendingDespawnIds);
                 }
             }, 5L);
         }
+
+        boolean expired = releasedByExpiry.remove(player.getUniqueId());
         
         // Check if player was revived (has pending revival location)
         // Only handle here if player is ALIVE (not going through respawn)
@@ -246,23 +308,23 @@ public class DeathListener implements Listener {
         // But if they logged out alive (as spectator), onPlayerRespawn won't fire
         if (corpseManager.hasCorpse(player.getUniqueId())) {
             Corpse corpse = corpseManager.getCorpse(player.getUniqueId());
-            Location corpseLocation = corpse != null ? corpse.getLocation() : null;
+            Location spectatorLocation = corpse != null ? corpse.getLocation(1.5) : null;
             
             plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
                 if (player.isOnline()) {
                     player.setGameMode(GameMode.SPECTATOR);
                     
-                    if (corpseLocation != null) {
-                        player.teleport(corpseLocation.clone().add(0, 1.5, 0));
+                    if (spectatorLocation != null) {
+                        player.teleport(spectatorLocation);
                         
                         String message = plugin.getConfig().getString("messages.death-coordinates",
                             "&cYou died at &e{x}, {y}, {z} &cin &e{world}&c. Find someone to revive you!");
                         
                         message = message
-                            .replace("{x}", String.valueOf(corpseLocation.getBlockX()))
-                            .replace("{y}", String.valueOf(corpseLocation.getBlockY()))
-                            .replace("{z}", String.valueOf(corpseLocation.getBlockZ()))
-                            .replace("{world}", corpseLocation.getWorld().getName());
+                            .replace("{x}", String.valueOf(corpse.getBlockX()))
+                            .replace("{y}", String.valueOf(corpse.getBlockY()))
+                            .replace("{z}", String.valueOf(corpse.getBlockZ()))
+                            .replace("{world}", corpse.getWorldName());
                         
                         player.sendMessage(ChatColor.translateAlternateColorCodes('&', message));
                     }
@@ -272,8 +334,14 @@ public class DeathListener implements Listener {
             // Fallback: player in spectator but no corpse
             plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
                 if (player.isOnline() && !corpseManager.hasCorpse(player.getUniqueId())) {
-                    player.setGameMode(GameMode.SURVIVAL);
-                    player.sendMessage(ChatColor.GREEN + "You were revived while offline! Welcome back.");
+                    if (expired) {
+                        // Same release as for an online player whose corpse expired
+                        releaseToSpawn(player);
+                        player.sendMessage(ChatColor.YELLOW + "Nobody revived you in time - your corpse decayed while you were away and you are back at your spawn point.");
+                    } else {
+                        player.setGameMode(GameMode.SURVIVAL);
+                        player.sendMessage(ChatColor.GREEN + "You were revived while offline! Welcome back.");
+                    }
                 }
             }, 10L);
         }
@@ -52,6 +52,11 @@ public class ReviveListener implements Listener {
             public void onPacketReceiving(PacketEvent event) {
                 Player player = event.getPlayer();
                 int entityId = event.getPacket().getIntegers().read(0);
+
+                // Fires for every entity click on the server - reject non-corpse IDs before anything else
+                if (!corpseManager.isCorpseEntityId(entityId)) {
+                    return;
+                }
                 
                 // Check if this is a right-click (interact)
                 EnumWrappers.EntityUseAction action = event.getPacket().getEnumEntityUseActions().read(0).getAction();
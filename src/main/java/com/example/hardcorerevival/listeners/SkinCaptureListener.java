@@ -0,0 +1,32 @@
+package com.bun.hardcorerevival.listeners;
+
+import com.bun.hardcorerevival.HardcoreRevival;
+import com.bun.hardcorerevival.corpse.CorpseManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Remembers players' skins while they are online, so their corpses never need Mojang's API
+ */
+public class SkinCaptureListener implements Listener {
+
+    private final CorpseManager corpseManager;
+
+    public SkinCaptureListener(HardcoreRevival plugin) {
+        this.corpseManager = plugin.getCorpseManager();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        corpseManager.captureSkin(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        // Skin plugins may have changed the textures since join
+        corpseManager.captureSkin(event.getPlayer());
+    }
+}
@@ -0,0 +1,74 @@
+package com.bun.hardcorerevival.listeners;
+
+import com.bun.hardcorerevival.HardcoreRevival;
+import com.bun.hardcorerevival.corpse.CorpseManager;
+import io.papermc.paper.event.packet.PlayerChunkLoadEvent;
+import io.papermc.paper.event.packet.PlayerChunkUnloadEvent;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+
+/**
+ * Shows and hides corpse NPCs as chunks are sent to and dropped by clients
+ */
+public class VisibilityListener implements Listener {
+
+    private final HardcoreRevival plugin;
+    private final CorpseManager corpseManager;
+
+    public VisibilityListener(HardcoreRevival plugin) {
+        this.plugin = plugin;
+        this.corpseManager = plugin.getCorpseManager();
+    }
+
+    @EventHandler
+    public void onChunkLoad(PlayerChunkLoadEvent event) {
+        Chunk chunk = event.getChunk();
+        corpseManager.onChunkSent(event.getPlayer(), chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    @EventHandler
+    public void onChunkUnload(PlayerChunkUnloadEvent event) {
+        Chunk chunk = event.getChunk();
+        corpseManager.onChunkForgotten(event.getPlayer(), chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        // Only chunk crossings matter
+        if ((from.getBlockX() >> 4) != (to.getBlockX() >> 4) || (from.getBlockZ() >> 4) != (to.getBlockZ() >> 4)) {
+            corpseManager.onViewerChangedChunk(event.getPlayer());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        corpseManager.resetViewer(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent event) {
+        // The client starts with a fresh level after respawning
+        Player player = event.getPlayer();
+        corpseManager.resetViewer(player);
+        plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+            if (player.isOnline()) {
+                corpseManager.spawnCorpsesForPlayer(player);
+            }
+        }, 5L);
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        corpseManager.removeViewer(event.getPlayer().getUniqueId());
+    }
+}
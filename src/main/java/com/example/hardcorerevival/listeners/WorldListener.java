@@ -0,0 +1,31 @@
+package com.bun.hardcorerevival.listeners;
+
+import com.bun.hardcorerevival.HardcoreRevival;
+import com.bun.hardcorerevival.corpse.CorpseManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Loads a world's corpses when the world loads and drops them from memory when it unloads
+ */
+public class WorldListener implements Listener {
+
+    private final CorpseManager corpseManager;
+
+    public WorldListener(HardcoreRevival plugin) {
+        this.corpseManager = plugin.getCorpseManager();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        corpseManager.onWorldLoad(event.getWorld());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        corpseManager.onWorldUnload(event.getWorld());
+    }
+}
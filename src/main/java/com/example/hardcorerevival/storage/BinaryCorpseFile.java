@@ -0,0 +1,213 @@
+package com.bun.hardcorerevival.storage;
+
+import com.bun.hardcorerevival.corpse.Corpse;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary snapshot (corpses.bin), read in one go into a heap buffer.
+ * (Not memory-mapped: on Windows a mapping that hasn't been collected yet blocks replacing the file.)
+ *
+ * Layout (big endian):
+ *   [int magic "HRCP"][short version][short reserved]
+ *   [int stringCount] then per string [short byteLength][utf-8 bytes]
+ *   [int recordCount] then fixed 68-byte records:
+ *     [long uuidMost][long uuidLeast][int nameIndex][int worldIndex]
+ *     [double x][double y][double z][float yaw][float pitch][long deathTime][int flags]
+ *   [int crc32 of everything before it]
+ *
+ * Player and world names go through the string table, so every corpse in the same
+ * world shares a single world name string after loading.
+ * Version 1 files (64-byte records without flags) are still read.
+ */
+public class BinaryCorpseFile implements CorpseSnapshotFile {
+
+    private static final int MAGIC = 0x48524350; // "HRCP"
+    private static final short VERSION = 2;
+    private static final int RECORD_BYTES = 68;
+    private static final int V1_RECORD_BYTES = 64;
+
+    private static final int FLAG_PENDING_SEARCH = 1;
+
+    private final Path file;
+    private final CorpseSnapshotFile legacyFile;
+    private final Logger logger;
+
+    /**
+     * @param legacyFile older snapshot to migrate from the first time this file is read
+     */
+    public BinaryCorpseFile(Path file, CorpseSnapshotFile legacyFile, Logger logger) {
+        this.file = file;
+        this.legacyFile = legacyFile;
+        this.logger = logger;
+    }
+
+    @Override
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public Map<UUID, Corpse> read() throws IOException {
+        if (!Files.exists(file)) {
+            return migrateLegacy();
+        }
+
+        long started = System.nanoTime();
+        Map<UUID, Corpse> corpses = decode(ByteBuffer.wrap(Files.readAllBytes(file)));
+
+        logger.fine("Read " + corpses.size() + " corpses from " + file.getFileName() + " in "
+            + (System.nanoTime() - started) / 1_000_000 + "ms");
+        return corpses;
+    }
+
+    @Override
+    public void write(Collection<Corpse> corpses) throws IOException {
+        // Build the string table
+        Map<String, Integer> stringIndex = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        int[] nameIndexes = new int[corpses.size()];
+        int[] worldIndexes = new int[corpses.size()];
+        int i = 0;
+        for (Corpse corpse : corpses) {
+            nameIndexes[i] = intern(corpse.getPlayerName(), stringIndex, strings);
+            worldIndexes[i] = intern(corpse.getWorldName(), stringIndex, strings);
+            i++;
+        }
+
+        AtomicFiles.write(file, raw -> {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(raw, crc)));
+
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(0);
+
+            out.writeInt(strings.size());
+            for (String value : strings) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(corpses.size());
+            int record = 0;
+            for (Corpse corpse : corpses) {
+                out.writeLong(corpse.getPlayerUuid().getMostSignificantBits());
+                out.writeLong(corpse.getPlayerUuid().getLeastSignificantBits());
+                out.writeInt(nameIndexes[record]);
+                out.writeInt(worldIndexes[record]);
+                out.writeDouble(corpse.getX());
+                out.writeDouble(corpse.getY());
+                out.writeDouble(corpse.getZ());
+                out.writeFloat(corpse.getYaw());
+                out.writeFloat(corpse.getPitch());
+                out.writeLong(corpse.getDeathTime());
+                out.writeInt(corpse.isPendingSearch() ? FLAG_PENDING_SEARCH : 0);
+                record++;
+            }
+
+            out.flush();
+            // Trailer goes straight to the raw stream so it isn't part of its own checksum
+            new DataOutputStream(raw).writeInt((int) crc.getValue());
+        });
+    }
+
+    private Map<UUID, Corpse> decode(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 16) {
+            throw new IOException(file.getFileName() + " is truncated");
+        }
+
+        // Verify the checksum before trusting any offsets
+        int end = buffer.limit() - 4;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(end));
+        if ((int) crc.getValue() != buffer.getInt(end)) {
+            throw new IOException(file.getFileName() + " is corrupt (checksum mismatch)");
+        }
+
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException(file.getFileName() + " is not a corpse snapshot");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION && version != 1) {
+            throw new IOException("Unsupported " + file.getFileName() + " version " + version);
+        }
+        buffer.getShort();
+
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            int length = Short.toUnsignedInt(buffer.getShort());
+            strings[i] = StandardCharsets.UTF_8.decode(buffer.slice(buffer.position(), length)).toString();
+            buffer.position(buffer.position() + length);
+        }
+
+        int count = buffer.getInt();
+        boolean hasFlags = version != 1;
+        if ((long) count * (hasFlags ? RECORD_BYTES : V1_RECORD_BYTES) > end - buffer.position()) {
+            throw new IOException(file.getFileName() + " is truncated");
+        }
+
+        Map<UUID, Corpse> corpses = new HashMap<>(Math.max(16, count * 4 / 3 + 1));
+        for (int i = 0; i < count; i++) {
+            UUID playerUuid = new UUID(buffer.getLong(), buffer.getLong());
+            String name = strings[buffer.getInt()];
+            String world = strings[buffer.getInt()];
+            double x = buffer.getDouble();
+            double y = buffer.getDouble();
+            double z = buffer.getDouble();
+            float yaw = buffer.getFloat();
+            float pitch = buffer.getFloat();
+            long deathTime = buffer.getLong();
+            int flags = hasFlags ? buffer.getInt() : 0;
+            corpses.put(playerUuid, new Corpse(playerUuid, name, world, x, y, z, yaw, pitch, deathTime,
+                (flags & FLAG_PENDING_SEARCH) != 0));
+        }
+        return corpses;
+    }
+
+    /**
+     * One-time migration: convert the old snapshot and keep it around as a backup
+     */
+    private Map<UUID, Corpse> migrateLegacy() throws IOException {
+        if (legacyFile == null) {
+            return null;
+        }
+
+        Map<UUID, Corpse> corpses = legacyFile.read();
+        if (corpses == null) {
+            return null;
+        }
+
+        write(corpses.values());
+        Path legacy = legacyFile.getFile();
+        Files.move(legacy, legacy.resolveSibling(legacy.getFileName() + ".migrated"),
+            StandardCopyOption.REPLACE_EXISTING);
+        logger.info("Migrated " + corpses.size() + " corpses from " + legacy.getFileName()
+            + " to " + file.getFileName());
+        return corpses;
+    }
+
+    private static int intern(String value, Map<String, Integer> index, List<String> strings) {
+        return index.computeIfAbsent(value, key -> {
+            strings.add(key);
+            return strings.size() - 1;
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package com.bun.hardcorerevival.storage;
+
+import com.bun.hardcorerevival.corpse.Corpse;
+
+import java.util.UUID;
+
+/**
+ * A single corpse mutation, queued for stores that persist changes incrementally
+ */
+public record CorpseChange(Type type, UUID playerUuid, String worldName, Corpse corpse) {
+
+    public enum Type {
+        CREATE,
+        REMOVE
+    }
+
+    public static CorpseChange created(Corpse corpse) {
+        return new CorpseChange(Type.CREATE, corpse.getPlayerUuid(), corpse.getWorldName(), corpse);
+    }
+
+    public static CorpseChange removed(UUID playerUuid, String worldName) {
+        return new CorpseChange(Type.REMOVE, playerUuid, worldName, null);
+    }
+}
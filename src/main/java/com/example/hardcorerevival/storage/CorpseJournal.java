@@ -0,0 +1,233 @@
+package com.bun.hardcorerevival.storage;
+
+import com.bun.hardcorerevival.corpse.Corpse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only change log: each create/remove is one small record, so an append costs
+ * O(1) regardless of how many corpses exist.
+ *
+ * Record layout: [int payloadLength][int crc32(payload)][payload]
+ * Payload: [byte op][long uuidMost][long uuidLeast] then for CREATE
+ *          [utf name][utf world][double x][double y][double z][float yaw][float pitch][long deathTime]
+ *          [byte flags] (missing in records written before it was added)
+ */
+final class CorpseJournal {
+
+    private static final byte OP_CREATE = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final int HEADER_BYTES = 8;
+
+    private static final byte FLAG_PENDING_SEARCH = 1;
+
+    private final Path file;
+    private FileChannel channel;
+    private int records;
+
+    CorpseJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Records appended since the journal was last emptied
+     */
+    int records() {
+        return records;
+    }
+
+    void setRecords(int records) {
+        this.records = records;
+    }
+
+    /**
+     * Append a batch of changes with a single write and fsync
+     */
+    void append(List<CorpseChange> changes) throws IOException {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(changes.size() * 96);
+        for (CorpseChange change : changes) {
+            writeRecord(bytes, change);
+        }
+
+        FileChannel out = channel();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        out.force(false);
+        records += changes.size();
+    }
+
+    /**
+     * Empty the journal (after its contents were folded into a snapshot)
+     */
+    void truncate() throws IOException {
+        FileChannel out = channel();
+        out.truncate(0);
+        out.force(true);
+        records = 0;
+    }
+
+    /**
+     * Close and delete the journal file
+     */
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+        records = 0;
+    }
+
+    void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            Files.createDirectories(file.getParent());
+            channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private static void writeRecord(ByteArrayOutputStream target, CorpseChange change) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(96);
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+
+        payload.writeByte(change.type() == CorpseChange.Type.CREATE ? OP_CREATE : OP_REMOVE);
+        payload.writeLong(change.playerUuid().getMostSignificantBits());
+        payload.writeLong(change.playerUuid().getLeastSignificantBits());
+
+        if (change.type() == CorpseChange.Type.CREATE) {
+            Corpse corpse = change.corpse();
+            payload.writeUTF(corpse.getPlayerName());
+            payload.writeUTF(corpse.getWorldName());
+            payload.writeDouble(corpse.getX());
+            payload.writeDouble(corpse.getY());
+            payload.writeDouble(corpse.getZ());
+            payload.writeFloat(corpse.getYaw());
+            payload.writeFloat(corpse.getPitch());
+            payload.writeLong(corpse.getDeathTime());
+            payload.writeByte(corpse.isPendingSearch() ? FLAG_PENDING_SEARCH : 0);
+        }
+        payload.flush();
+
+        byte[] data = payloadBytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        DataOutputStream header = new DataOutputStream(target);
+        header.writeInt(data.length);
+        header.writeInt((int) crc.getValue());
+        header.write(data);
+        header.flush();
+    }
+
+    /**
+     * Apply every intact journal record to {@code corpses}. A torn or corrupt record
+     * (crash mid-append) ends the replay and is cut off so later appends stay readable.
+     *
+     * @return number of records applied
+     */
+    static int replay(Path journal, Map<UUID, Corpse> corpses, Logger logger) throws IOException {
+        if (!Files.exists(journal)) {
+            return 0;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(journal));
+        Replay replay = applyIntact(buffer, corpses);
+        if (replay.goodOffset() < buffer.limit()) {
+            logger.warning("Skipping torn record at the end of " + journal.getFileName()
+                + " (" + (buffer.limit() - replay.goodOffset()) + " bytes)");
+            try (FileChannel out = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+                out.truncate(replay.goodOffset());
+            }
+        }
+        return replay.applied();
+    }
+
+    /**
+     * Like {@link #replay}, but never touches the file - a torn tail is just skipped
+     */
+    static int read(Path journal, Map<UUID, Corpse> corpses) throws IOException {
+        if (!Files.exists(journal)) {
+            return 0;
+        }
+        return applyIntact(ByteBuffer.wrap(Files.readAllBytes(journal)), corpses).applied();
+    }
+
+    private static Replay applyIntact(ByteBuffer buffer, Map<UUID, Corpse> corpses) {
+        CRC32 crc = new CRC32();
+        int applied = 0;
+        int goodOffset = 0;
+
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+
+            byte[] data = new byte[length];
+            buffer.get(data);
+            crc.reset();
+            crc.update(data);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            try {
+                applyRecord(data, corpses);
+            } catch (IOException e) {
+                break;
+            }
+            applied++;
+            goodOffset = buffer.position();
+        }
+        return new Replay(applied, goodOffset);
+    }
+
+    /**
+     * @param goodOffset end of the last intact record
+     */
+    private record Replay(int applied, int goodOffset) {
+    }
+
+    private static void applyRecord(byte[] data, Map<UUID, Corpse> corpses) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        byte op = in.readByte();
+        UUID playerUuid = new UUID(in.readLong(), in.readLong());
+
+        switch (op) {
+            case OP_CREATE -> corpses.put(playerUuid, new Corpse(playerUuid,
+                in.readUTF(), in.readUTF(),
+                in.readDouble(), in.readDouble(), in.readDouble(),
+                in.readFloat(), in.readFloat(),
+                in.readLong(),
+                in.available() > 0 && (in.readByte() & FLAG_PENDING_SEARCH) != 0));
+            case OP_REMOVE -> corpses.remove(playerUuid);
+            default -> throw new IOException("Unknown journal op " + op);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.bun.hardcorerevival.storage;
+
+import com.bun.hardcorerevival.corpse.Corpse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind persister for corpse data.
+ * Mutations only mark the store dirty; a single background thread coalesces everything
+ * that happened within the save delay into one write to the {@link CorpseStore}.
+ */
+public class CorpsePersister {
+
+    private static final long MIN_RETRY_DELAY_MS = 1000;
+    private static final long MAX_RETRY_DELAY_MS = 60_000;
+
+    private final Logger logger;
+    private final CorpseStore store;
+    private final Function<String, Collection<Corpse>> resident;
+    private final long saveDelayMs;
+    private final ScheduledExecutorService executor;
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Queue<CorpseChange> pendingChanges = new ConcurrentLinkedQueue<>();
+
+    // Writes that failed in a row, only touched on the background thread
+    private int failedWrites;
+
+    /**
+     * @param resident current corpses of a world loaded in memory, or null if the world isn't resident
+     */
+    public CorpsePersister(Logger logger, CorpseStore store,
+                           Function<String, Collection<Corpse>> resident, long saveDelayMs) {
+        this.logger = logger;
+        this.store = store;
+        this.resident = resident;
+        this.saveDelayMs = Math.max(0, saveDelayMs);
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "HardcoreRevival-Persister");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // A retry still waiting at shutdown must not run against the closed store
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.executor = executor;
+    }
+
+    /**
+     * Queue a newly created corpse
+     */
+    public void recordCreate(Corpse corpse) {
+        pendingChanges.add(CorpseChange.created(corpse));
+        markDirty();
+    }
+
+    /**
+     * Queue a removed corpse
+     */
+    public void recordRemove(UUID playerUuid, String worldName) {
+        pendingChanges.add(CorpseChange.removed(playerUuid, worldName));
+        markDirty();
+    }
+
+    /**
+     * Mark the data as changed. Cheap enough to call from the main thread on every mutation.
+     */
+    public void markDirty() {
+        dirty.set(true);
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.schedule(this::writeIfDirty, saveDelayMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // A change racing plugin disable - the shutdown flush has already run
+                scheduled.set(false);
+                logger.warning("Corpse change after storage shutdown was not saved");
+            }
+        }
+    }
+
+    /**
+     * Block until pending changes are on disk, or the timeout runs out
+     *
+     * @return true if everything was written in time
+     */
+    public boolean flush(long timeout, TimeUnit unit) {
+        if (!dirty.get()) {
+            return true;
+        }
+
+        try {
+            executor.submit(this::writeIfDirty).get(timeout, unit);
+            return !dirty.get();
+        } catch (RejectedExecutionException e) {
+            logger.warning("Corpse storage is already shut down, pending changes were not saved");
+        } catch (TimeoutException e) {
+            logger.warning("Timed out waiting for corpse data to be written");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.severe("Failed to flush corpses: " + e.getCause());
+        }
+        return false;
+    }
+
+    /**
+     * Run a store query on the background thread, after any pending writes
+     */
+    public CompletableFuture<List<Corpse>> query(CorpseQuery query) {
+        return submit(() -> store.query(query));
+    }
+
+    /**
+     * Load one world's shard on the background thread, after any pending writes
+     */
+    public CompletableFuture<Map<UUID, Corpse>> loadWorld(String worldName) {
+        return submit(() -> store.load(worldName));
+    }
+
+    private <T> CompletableFuture<T> submit(StoreTask<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                // Reads must see everything written so far
+                writeIfDirty();
+                try {
+                    result.complete(task.run());
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface StoreTask<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * Flush with a bounded wait, close the store and stop the background thread
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        flush(timeout, unit);
+        try {
+            executor.submit(() -> {
+                store.close(resident);
+                return null;
+            }).get(timeout, unit);
+        } catch (TimeoutException e) {
+            logger.warning("Timed out closing corpse storage");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.severe("Failed to close corpse storage: " + e.getCause());
+        }
+        executor.shutdown();
+    }
+
+    private void writeIfDirty() {
+        scheduled.set(false);
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+
+        List<CorpseChange> changes = new ArrayList<>();
+        for (CorpseChange change; (change = pendingChanges.poll()) != null; ) {
+            changes.add(change);
+        }
+
+        try {
+            // Resident snapshots are taken after draining, so they always contain the drained changes
+            store.write(changes, resident);
+            failedWrites = 0;
+        } catch (IOException e) {
+            // Keep the changes pending and try again later, backing off while the disk keeps failing
+            requeue(changes);
+            dirty.set(true);
+            failedWrites++;
+            long retryDelayMs = retryDelayMs(failedWrites);
+            logger.severe("Failed to save corpses, retrying in " + (retryDelayMs / 1000) + "s: " + e.getMessage());
+            scheduleRetry(retryDelayMs);
+        }
+    }
+
+    private long retryDelayMs(int failures) {
+        long delay = Math.max(MIN_RETRY_DELAY_MS, saveDelayMs) << Math.min(failures - 1, 6);
+        return Math.min(delay, MAX_RETRY_DELAY_MS);
+    }
+
+    private void scheduleRetry(long delayMs) {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.schedule(this::writeIfDirty, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down - shutdown() already flushed what it could
+            scheduled.set(false);
+        }
+    }
+
+    private void requeue(List<CorpseChange> changes) {
+        List<CorpseChange> newer = new ArrayList<>();
+        for (CorpseChange change; (change = pendingChanges.poll()) != null; ) {
+            newer.add(change);
+        }
+        pendingChanges.addAll(changes);
+        pendingChanges.addAll(newer);
+    }
+}
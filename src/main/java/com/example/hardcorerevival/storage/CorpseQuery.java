@@ -0,0 +1,26 @@
+package com.bun.hardcorerevival.storage;
+
+import com.bun.hardcorerevival.corpse.Corpse;
+
+/**
+ * Admin lookup filter. Null / zero fields match everything.
+ *
+ * @param world      world name (exact match)
+ * @param playerName player name (case-insensitive)
+ * @param diedBefore only corpses with a death time before this epoch millis
+ */
+public record CorpseQuery(String world, String playerName, long diedBefore) {
+
+    /**
+     * In-memory equivalent of the query, for stores without indexes
+     */
+    public boolean matches(Corpse corpse) {
+        if (world != null && !world.equals(corpse.getWorldName())) {
+            return false;
+        }
+        if (playerName != null && !playerName.equalsIgnoreCase(corpse.getPlayerName())) {
+            return false;
+        }
+        return diedBefore <= 0 || corpse.getDeathTime() < diedBefore;
+    }
+}
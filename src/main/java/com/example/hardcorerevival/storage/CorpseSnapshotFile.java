@@ -0,0 +1,27 @@
+package com.bun.hardcorerevival.storage;
+
+import com.bun.hardcorerevival.corpse.Corpse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A full snapshot of every corpse in one file, in some on-disk format
+ */
+public interface CorpseSnapshotFile {
+
+    Path getFile();
+
+    /**
+     * Read all corpses, or null if there is no file yet
+     */
+    Map<UUID, Corpse> read() throws IOException;
+
+    /**
+     * Atomically replace the file with the given corpses
+     */
+    void write(Collection<Corpse> corpses) throws IOException;
+}
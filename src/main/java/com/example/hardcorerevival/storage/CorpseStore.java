@@ -0,0 +1,58 @@
+package com.bun.hardcorerevival.storage;
+
+import com.bun.hardcorerevival.corpse.Corpse;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Backing storage for corpse data, sharded by world.
+ * Everything except the startup load runs on the persister's background thread.
+ */
+public interface CorpseStore {
+
+    /**
+     * Names of all worlds that have stored corpses
+     */
+    Set<String> storedWorlds() throws IOException;
+
+    /**
+     * Read the stored corpses of one world (empty map if none)
+     */
+    Map<UUID, Corpse> load(String worldName) throws IOException;
+
+    /**
+     * Persist a batch of coalesced changes.
+     *
+     * @param changes  mutations since the last write, in order
+     * @param resident current corpses of a world if it is loaded in memory, or null if the
+     *                 store has to work from what is on disk (world unloaded)
+     */
+    void write(List<CorpseChange> changes, Function<String, Collection<Corpse>> resident) throws IOException;
+
+    /**
+     * Stored corpses matching an admin query, in every world whether it is loaded or not.
+     * Read-only: must never modify the stored data.
+     *
+     * @return matching corpses, oldest death first
+     */
+    List<Corpse> query(CorpseQuery query) throws IOException;
+
+    /**
+     * Whether the stored data was changed by something other than this store since it last
+     * read or wrote it (e.g. edited by hand). Stores that can't tell say yes.
+     */
+    default boolean changedExternally() throws IOException {
+        return true;
+    }
+
+    /**
+     * Final write on shutdown, then release any open resources
+     */
+    void close(Function<String, Collection<Corpse>> resident) throws IOException;
+}
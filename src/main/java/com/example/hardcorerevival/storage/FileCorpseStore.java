@@ -0,0 +1,337 @@
+package com.bun.hardcorerevival.storage;
+
+import com.bun.hardcorerevival.corpse.Corpse;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * File-based store, sharded per world under corpses/ (one snapshot file per world).
+ * A save only rewrites the shards of worlds that actually changed.
+ *
+ * In journal mode each change is appended to the world's .journal file instead, and the
+ * journal is folded into the world's snapshot once it grows past the compaction threshold.
+ */
+public class FileCorpseStore implements CorpseStore {
+
+    private static final String JOURNAL_EXTENSION = ".journal";
+    private static final String[] SNAPSHOT_EXTENSIONS = {".json", ".bin"};
+
+    private final Path directory;
+    private final String extension;
+    private final Function<Path, CorpseSnapshotFile> format;
+    private final boolean journaling;
+    private final int compactThreshold;
+    private final Logger logger;
+
+    // Pre-sharding files (corpses.json / corpses.bin + corpses.journal), split up on first use
+    private final List<CorpseSnapshotFile> legacyFiles;
+    private final Path legacyJournal;
+    private boolean legacyChecked;
+
+    private final Map<String, CorpseJournal> journals = new HashMap<>();
+
+    // State of the shard directory after our last read or write, see changedExternally()
+    private long knownFingerprint;
+
+    /**
+     * @param extension snapshot file extension for the format, e.g. ".json"
+     * @param format    opens a snapshot file of the configured format
+     */
+    public FileCorpseStore(Path directory, String extension, Function<Path, CorpseSnapshotFile> format,
+                           boolean journaling, int compactThreshold,
+                           List<CorpseSnapshotFile> legacyFiles, Path legacyJournal, Logger logger) {
+        this.directory = directory;
+        this.extension = extension;
+        this.format = format;
+        this.journaling = journaling;
+        this.compactThreshold = Math.max(1, compactThreshold);
+        this.legacyFiles = legacyFiles;
+        this.legacyJournal = legacyJournal;
+        this.logger = logger;
+    }
+
+    @Override
+    public synchronized Set<String> storedWorlds() throws IOException {
+        migrateLegacy();
+
+        Set<String> worlds = listWorlds();
+        knownFingerprint = fingerprint();
+        return worlds;
+    }
+
+    @Override
+    public synchronized Map<UUID, Corpse> load(String worldName) throws IOException {
+        migrateLegacy();
+
+        Map<UUID, Corpse> corpses = readShard(worldName);
+        Path journalFile = journalFile(worldName);
+        if (journaling) {
+            journal(worldName).setRecords(CorpseJournal.replay(journalFile, corpses, logger));
+        } else if (Files.exists(journalFile)) {
+            // Switched away from journal mode - fold the tail in so nothing is lost
+            int records = CorpseJournal.replay(journalFile, corpses, logger);
+            writeShard(worldName, corpses.values());
+            Files.delete(journalFile);
+            logger.info("Merged " + records + " journal records into the " + worldName + " shard");
+        }
+        knownFingerprint = fingerprint();
+        return corpses;
+    }
+
+    @Override
+    public synchronized void write(List<CorpseChange> changes,
+                                   Function<String, Collection<Corpse>> resident) throws IOException {
+        // Only touch the shards of worlds that changed
+        Map<String, List<CorpseChange>> byWorld = new LinkedHashMap<>();
+        for (CorpseChange change : changes) {
+            byWorld.computeIfAbsent(change.worldName(), world -> new ArrayList<>()).add(change);
+        }
+
+        for (Map.Entry<String, List<CorpseChange>> entry : byWorld.entrySet()) {
+            String worldName = entry.getKey();
+            if (journaling) {
+                CorpseJournal journal = journal(worldName);
+                journal.append(entry.getValue());
+                if (journal.records() >= compactThreshold) {
+                    compact(worldName, resident.apply(worldName));
+                }
+            } else {
+                Collection<Corpse> corpses = resident.apply(worldName);
+                if (corpses == null) {
+                    // World isn't loaded - patch the shard on disk
+                    Map<UUID, Corpse> stored = readShard(worldName);
+                    applyChanges(entry.getValue(), stored);
+                    corpses = stored.values();
+                }
+                writeShard(worldName, corpses);
+            }
+        }
+        knownFingerprint = fingerprint();
+    }
+
+    /**
+     * No indexes - reads the shards (and journals) of the matching worlds and filters them
+     */
+    @Override
+    public synchronized List<Corpse> query(CorpseQuery query) throws IOException {
+        List<Corpse> matches = new ArrayList<>();
+        Collection<String> worlds = query.world() != null ? List.of(query.world()) : listWorlds();
+        for (String worldName : worlds) {
+            Map<UUID, Corpse> corpses = readShard(worldName);
+            CorpseJournal.read(journalFile(worldName), corpses);
+            for (Corpse corpse : corpses.values()) {
+                if (query.matches(corpse)) {
+                    matches.add(corpse);
+                }
+            }
+        }
+        matches.sort(Comparator.comparingLong(Corpse::getDeathTime));
+        return matches;
+    }
+
+    @Override
+    public synchronized boolean changedExternally() throws IOException {
+        return fingerprint() != knownFingerprint;
+    }
+
+    @Override
+    public synchronized void close(Function<String, Collection<Corpse>> resident) throws IOException {
+        try {
+            for (Map.Entry<String, CorpseJournal> entry : new ArrayList<>(journals.entrySet())) {
+                if (entry.getValue().records() > 0) {
+                    compact(entry.getKey(), resident.apply(entry.getKey()));
+                }
+            }
+        } finally {
+            for (CorpseJournal journal : journals.values()) {
+                journal.close();
+            }
+            journals.clear();
+        }
+    }
+
+    private Set<String> listWorlds() throws IOException {
+        Set<String> worlds = new TreeSet<>();
+        if (!Files.isDirectory(directory)) {
+            return worlds;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String world = stripExtension(file.getFileName().toString());
+                if (world != null) {
+                    worlds.add(world);
+                }
+            }
+        }
+        return worlds;
+    }
+
+    /**
+     * Name, size and modification time of every shard and journal, combined independent of order
+     */
+    private long fingerprint() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        long fingerprint = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (file.getFileName().toString().endsWith(".tmp")) {
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                long hash = file.getFileName().toString().hashCode();
+                hash = hash * 31 + attributes.size();
+                hash = hash * 31 + attributes.lastModifiedTime().toMillis();
+                fingerprint += hash;
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Move the whole shard directory aside after its contents were imported elsewhere
+     */
+    public synchronized void retire() throws IOException {
+        close(world -> null);
+        if (Files.isDirectory(directory)) {
+            Files.move(directory, directory.resolveSibling(directory.getFileName() + ".migrated"),
+                StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Fold a world's journal into its snapshot, then empty it. A crash in between is
+     * harmless - replaying the journal over the new snapshot is idempotent.
+     */
+    private void compact(String worldName, Collection<Corpse> corpses) throws IOException {
+        CorpseJournal journal = journal(worldName);
+        int records = journal.records();
+
+        if (corpses == null) {
+            Map<UUID, Corpse> stored = readShard(worldName);
+            CorpseJournal.replay(journalFile(worldName), stored, logger);
+            corpses = stored.values();
+        }
+        writeShard(worldName, corpses);
+
+        if (corpses.isEmpty()) {
+            journal.delete();
+            journals.remove(worldName);
+        } else {
+            journal.truncate();
+        }
+        logger.fine("Compacted " + records + " journal records into the " + worldName + " shard");
+    }
+
+    private Map<UUID, Corpse> readShard(String worldName) throws IOException {
+        Map<UUID, Corpse> corpses = shard(worldName).read();
+        return corpses != null ? corpses : new HashMap<>();
+    }
+
+    private void writeShard(String worldName, Collection<Corpse> corpses) throws IOException {
+        CorpseSnapshotFile shard = shard(worldName);
+        if (corpses.isEmpty()) {
+            Files.deleteIfExists(shard.getFile());
+        } else {
+            shard.write(corpses);
+        }
+    }
+
+    private CorpseSnapshotFile shard(String worldName) {
+        return format.apply(directory.resolve(worldName + extension));
+    }
+
+    private CorpseJournal journal(String worldName) {
+        return journals.computeIfAbsent(worldName, world -> new CorpseJournal(journalFile(world)));
+    }
+
+    private Path journalFile(String worldName) {
+        return directory.resolve(worldName + JOURNAL_EXTENSION);
+    }
+
+    private static String stripExtension(String fileName) {
+        if (fileName.endsWith(JOURNAL_EXTENSION)) {
+            return fileName.substring(0, fileName.length() - JOURNAL_EXTENSION.length());
+        }
+        for (String snapshotExtension : SNAPSHOT_EXTENSIONS) {
+            if (fileName.endsWith(snapshotExtension)) {
+                return fileName.substring(0, fileName.length() - snapshotExtension.length());
+            }
+        }
+        return null;
+    }
+
+    private static void applyChanges(List<CorpseChange> changes, Map<UUID, Corpse> corpses) {
+        for (CorpseChange change : changes) {
+            if (change.type() == CorpseChange.Type.CREATE) {
+                corpses.put(change.playerUuid(), change.corpse());
+            } else {
+                corpses.remove(change.playerUuid());
+            }
+        }
+    }
+
+    /**
+     * One-time split of the pre-sharding single-file data into per-world shards
+     */
+    private void migrateLegacy() throws IOException {
+        if (legacyChecked) {
+            return;
+        }
+        legacyChecked = true;
+
+        Map<UUID, Corpse> corpses = new HashMap<>();
+        List<Path> migrated = new ArrayList<>();
+        for (CorpseSnapshotFile legacyFile : legacyFiles) {
+            Map<UUID, Corpse> stored = legacyFile.read();
+            if (stored != null) {
+                corpses.putAll(stored);
+                migrated.add(legacyFile.getFile());
+            }
+        }
+        if (CorpseJournal.replay(legacyJournal, corpses, logger) > 0 || Files.exists(legacyJournal)) {
+            migrated.add(legacyJournal);
+        }
+        if (migrated.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<Corpse>> byWorld = new HashMap<>();
+        for (Corpse corpse : corpses.values()) {
+            byWorld.computeIfAbsent(corpse.getWorldName(), world -> new ArrayList<>()).add(corpse);
+        }
+        for (Map.Entry<String, List<Corpse>> entry : byWorld.entrySet()) {
+            Map<UUID, Corpse> merged = readShard(entry.getKey());
+            for (Corpse corpse : entry.getValue()) {
+                merged.put(corpse.getPlayerUuid(), corpse);
+            }
+            writeShard(entry.getKey(), merged.values());
+        }
+
+        // Keep the old files around as a backup
+        for (Path legacy : migrated) {
+            Files.move(legacy, legacy.resolveSibling(legacy.getFileName() + ".migrated"),
+                StandardCopyOption.REPLACE_EXISTING);
+        }
+        logger.info("Split " + corpses.size() + " corpses from " + migrated.get(0).getFileName()
+            + " into " + byWorld.size() + " world shards");
+    }
+}
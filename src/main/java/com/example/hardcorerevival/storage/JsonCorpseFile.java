@@ -0,0 +1,73 @@
+package com.bun.hardcorerevival.storage;
+
+import com.bun.hardcorerevival.corpse.Corpse;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads and atomically writes the corpses.json snapshot
+ */
+public class JsonCorpseFile implements CorpseSnapshotFile {
+
+    private static final Type CORPSE_MAP_TYPE = new TypeToken<HashMap<UUID, Corpse>>(){}.getType();
+
+    private final Path file;
+    private final Gson gson;
+
+    public JsonCorpseFile(Path file) {
+        this.file = file;
+        this.gson = new GsonBuilder().setPrettyPrinting().create();
+    }
+
+    @Override
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Read all corpses, or null if there is no file yet
+     */
+    @Override
+    public Map<UUID, Corpse> read() throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, CORPSE_MAP_TYPE);
+        }
+    }
+
+    /**
+     * Replace the file with the given corpses (temp file + fsync + rename)
+     */
+    @Override
+    public void write(Collection<Corpse> corpses) throws IOException {
+        Map<UUID, Corpse> data = new LinkedHashMap<>();
+        for (Corpse corpse : corpses) {
+            data.put(corpse.getPlayerUuid(), corpse);
+        }
+
+        AtomicFiles.write(file, out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            gson.toJson(data, writer);
+            writer.flush();
+        });
+    }
+}
@@ -0,0 +1,299 @@
+package com.bun.hardcorerevival.storage;
+
+import com.bun.hardcorerevival.corpse.Corpse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Embedded SQLite store (corpses.db). The driver ships with the server, so no extra dependency.
+ * Changes are applied as batched statements in one transaction per (coalesced) save, and
+ * admin lookups by name, world and death time go through indexes.
+ */
+public class SqliteCorpseStore implements CorpseStore {
+
+    private static final String UPSERT = "INSERT OR REPLACE INTO corpses "
+        + "(player_uuid, player_name, name_lower, world, x, y, z, yaw, pitch, death_time, pending_search) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE = "DELETE FROM corpses WHERE player_uuid = ?";
+
+    private final Path databaseFile;
+    private final FileCorpseStore legacyStore;
+    private final Logger logger;
+
+    private Connection connection;
+
+    // PRAGMA data_version as of our last look, it changes when another connection commits
+    private long knownDataVersion;
+
+    /**
+     * @param legacyStore file store to import from the first time the database is created
+     */
+    public SqliteCorpseStore(Path databaseFile, FileCorpseStore legacyStore, Logger logger) {
+        this.databaseFile = databaseFile;
+        this.legacyStore = legacyStore;
+        this.logger = logger;
+    }
+
+    @Override
+    public synchronized Set<String> storedWorlds() throws IOException {
+        Set<String> worlds = new TreeSet<>();
+        try (Statement statement = connection().createStatement();
+             ResultSet rows = statement.executeQuery("SELECT DISTINCT world FROM corpses")) {
+            while (rows.next()) {
+                worlds.add(rows.getString(1));
+            }
+            return worlds;
+        } catch (SQLException e) {
+            throw new IOException("Failed to list worlds in " + databaseFile.getFileName(), e);
+        }
+    }
+
+    @Override
+    public synchronized Map<UUID, Corpse> load(String worldName) throws IOException {
+        try (PreparedStatement statement = connection().prepareStatement("SELECT * FROM corpses WHERE world = ?")) {
+            statement.setString(1, worldName);
+            Map<UUID, Corpse> corpses = new HashMap<>();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    Corpse corpse = readCorpse(rows);
+                    corpses.put(corpse.getPlayerUuid(), corpse);
+                }
+            }
+            return corpses;
+        } catch (SQLException e) {
+            throw new IOException("Failed to load corpses from " + databaseFile.getFileName(), e);
+        }
+    }
+
+    @Override
+    public synchronized void write(List<CorpseChange> changes,
+                                   Function<String, Collection<Corpse>> resident) throws IOException {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        // Only the last change per player matters within one batch
+        Map<UUID, CorpseChange> latest = new LinkedHashMap<>();
+        for (CorpseChange change : changes) {
+            latest.remove(change.playerUuid());
+            latest.put(change.playerUuid(), change);
+        }
+
+        try {
+            Connection db = connection();
+            try (PreparedStatement upsert = db.prepareStatement(UPSERT);
+                 PreparedStatement delete = db.prepareStatement(DELETE)) {
+                for (CorpseChange change : latest.values()) {
+                    if (change.type() == CorpseChange.Type.CREATE) {
+                        bindCorpse(upsert, change.corpse());
+                        upsert.addBatch();
+                    } else {
+                        delete.setString(1, change.playerUuid().toString());
+                        delete.addBatch();
+                    }
+                }
+                upsert.executeBatch();
+                delete.executeBatch();
+                db.commit();
+            } catch (SQLException e) {
+                db.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to write corpses to " + databaseFile.getFileName(), e);
+        }
+    }
+
+    @Override
+    public synchronized List<Corpse> query(CorpseQuery query) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT * FROM corpses WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (query.world() != null) {
+            sql.append(" AND world = ?");
+            params.add(query.world());
+        }
+        if (query.playerName() != null) {
+            sql.append(" AND name_lower = ?");
+            params.add(query.playerName().toLowerCase(Locale.ROOT));
+        }
+        if (query.diedBefore() > 0) {
+            sql.append(" AND death_time < ?");
+            params.add(query.diedBefore());
+        }
+        sql.append(" ORDER BY death_time");
+
+        try (PreparedStatement statement = connection().prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+
+            List<Corpse> result = new ArrayList<>();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    result.add(readCorpse(rows));
+                }
+            }
+            return result;
+        } catch (SQLException e) {
+            throw new IOException("Corpse query failed", e);
+        }
+    }
+
+    @Override
+    public synchronized boolean changedExternally() throws IOException {
+        try {
+            long dataVersion = dataVersion(connection());
+            boolean changed = dataVersion != knownDataVersion;
+            knownDataVersion = dataVersion;
+            return changed;
+        } catch (SQLException e) {
+            throw new IOException("Failed to check " + databaseFile.getFileName(), e);
+        }
+    }
+
+    private static long dataVersion(Connection db) throws SQLException {
+        try (Statement statement = db.createStatement();
+             ResultSet rows = statement.executeQuery("PRAGMA data_version")) {
+            return rows.next() ? rows.getLong(1) : 0;
+        } finally {
+            // Don't hold a read transaction open, it would pin the version
+            db.commit();
+        }
+    }
+
+    @Override
+    public synchronized void close(Function<String, Collection<Corpse>> resident) throws IOException {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException("Failed to close " + databaseFile.getFileName(), e);
+        } finally {
+            connection = null;
+        }
+    }
+
+    private Connection connection() throws SQLException, IOException {
+        if (connection != null) {
+            return connection;
+        }
+
+        Files.createDirectories(databaseFile.getParent());
+        Connection db = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.toAbsolutePath());
+        try (Statement statement = db.createStatement()) {
+            statement.execute("PRAGMA journal_mode = WAL");
+            statement.execute("PRAGMA synchronous = NORMAL");
+            statement.execute("CREATE TABLE IF NOT EXISTS corpses ("
+                + "player_uuid TEXT PRIMARY KEY, "
+                + "player_name TEXT NOT NULL, "
+                + "name_lower TEXT NOT NULL, "
+                + "world TEXT NOT NULL, "
+                + "x REAL NOT NULL, y REAL NOT NULL, z REAL NOT NULL, "
+                + "yaw REAL NOT NULL, pitch REAL NOT NULL, "
+                + "death_time INTEGER NOT NULL, "
+                + "pending_search INTEGER NOT NULL DEFAULT 0)");
+            addPendingSearchColumn(statement);
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_corpses_name ON corpses (name_lower)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_corpses_world_time ON corpses (world, death_time)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_corpses_time ON corpses (death_time)");
+        }
+        db.setAutoCommit(false);
+        connection = db;
+        importLegacy();
+        knownDataVersion = dataVersion(db);
+        return db;
+    }
+
+    /**
+     * Databases created before the pending_search column existed get it added
+     */
+    private static void addPendingSearchColumn(Statement statement) throws SQLException {
+        try (ResultSet columns = statement.executeQuery("PRAGMA table_info(corpses)")) {
+            while (columns.next()) {
+                if (columns.getString("name").equals("pending_search")) {
+                    return;
+                }
+            }
+        }
+        statement.execute("ALTER TABLE corpses ADD COLUMN pending_search INTEGER NOT NULL DEFAULT 0");
+    }
+
+    /**
+     * One-time import from the file store into an empty database, keeping the old shards as a backup
+     */
+    private void importLegacy() throws IOException, SQLException {
+        if (legacyStore == null) {
+            return;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT 1 FROM corpses LIMIT 1")) {
+            if (rows.next()) {
+                return;
+            }
+        }
+
+        Set<String> worlds = legacyStore.storedWorlds();
+        if (worlds.isEmpty()) {
+            return;
+        }
+
+        List<CorpseChange> changes = new ArrayList<>();
+        for (String worldName : worlds) {
+            for (Corpse corpse : legacyStore.load(worldName).values()) {
+                changes.add(CorpseChange.created(corpse));
+            }
+        }
+        write(changes, world -> null);
+        legacyStore.retire();
+
+        logger.info("Imported " + changes.size() + " corpses from " + worlds.size()
+            + " world shards into " + databaseFile.getFileName());
+    }
+
+    private static void bindCorpse(PreparedStatement statement, Corpse corpse) throws SQLException {
+        statement.setString(1, corpse.getPlayerUuid().toString());
+        statement.setString(2, corpse.getPlayerName());
+        statement.setString(3, corpse.getPlayerName().toLowerCase(Locale.ROOT));
+        statement.setString(4, corpse.getWorldName());
+        statement.setDouble(5, corpse.getX());
+        statement.setDouble(6, corpse.getY());
+        statement.setDouble(7, corpse.getZ());
+        statement.setFloat(8, corpse.getYaw());
+        statement.setFloat(9, corpse.getPitch());
+        statement.setLong(10, corpse.getDeathTime());
+        statement.setInt(11, corpse.isPendingSearch() ? 1 : 0);
+    }
+
+    private static Corpse readCorpse(ResultSet rows) throws SQLException {
+        return new Corpse(
+            UUID.fromString(rows.getString("player_uuid")),
+            rows.getString("player_name"),
+            rows.getString("world"),
+            rows.getDouble("x"), rows.getDouble("y"), rows.getDouble("z"),
+            rows.getFloat("yaw"), rows.getFloat("pitch"),
+            rows.getLong("death_time"),
+            rows.getInt("pending_search") != 0);
+    }
+}
@@ -0,0 +1,164 @@
+package com.bun.hardcorerevival.util;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides whether an outbound request to a remote service may go out right now.
+ * A token bucket caps the request rate, a 429's Retry-After pauses everything until it
+ * passes, and a circuit breaker stops requests for a while after repeated failures
+ * (then lets a single trial request through).
+ *
+ * Thread-safe.
+ */
+final class RequestGate {
+
+    static final int FAILURE_THRESHOLD = 5;
+    static final long OPEN_DURATION_MS = 60_000;
+    static final long DEFAULT_RETRY_AFTER_MS = 60_000;
+
+    private final int requestsPerMinute;
+    private final int burst;
+    private final double tokensPerMs;
+    private final LongSupplier clock;
+
+    private double tokens;
+    private long lastRefill;
+    private long blockedUntil;
+
+    private int consecutiveFailures;
+    private long openUntil;
+    private boolean trialInFlight;
+
+    RequestGate(int requestsPerMinute, int burst) {
+        this(requestsPerMinute, burst, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock epoch millis, replaceable for tests
+     */
+    RequestGate(int requestsPerMinute, int burst, LongSupplier clock) {
+        this.requestsPerMinute = Math.max(1, requestsPerMinute);
+        this.burst = Math.max(1, burst);
+        this.tokensPerMs = this.requestsPerMinute / 60_000.0;
+        this.clock = clock;
+        this.tokens = this.burst;
+        this.lastRefill = clock.getAsLong();
+    }
+
+    int requestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    /**
+     * A gate with a different rate that keeps this one's backoff (Retry-After pause and
+     * circuit breaker), so a config reload doesn't resume requests in the middle of an outage
+     */
+    synchronized RequestGate withRate(int requestsPerMinute) {
+        RequestGate gate = new RequestGate(requestsPerMinute, burst, clock);
+        gate.blockedUntil = blockedUntil;
+        gate.consecutiveFailures = consecutiveFailures;
+        gate.openUntil = openUntil;
+        return gate;
+    }
+
+    /**
+     * Take a permit for one request
+     *
+     * @return false if the request must not be sent (rate limited or circuit open)
+     */
+    synchronized boolean tryAcquire() {
+        long now = clock.getAsLong();
+        if (now < blockedUntil) {
+            return false;
+        }
+        if (consecutiveFailures >= FAILURE_THRESHOLD) {
+            // Open: wait it out, then half-open with one trial request
+            if (now < openUntil || trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+
+        tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerMs);
+        lastRefill = now;
+        if (tokens < 1) {
+            trialInFlight = false;
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Take a permit if one is available, otherwise say how long to wait before asking again.
+     * Never blocks, so callers can wait on a timer instead of holding a thread.
+     *
+     * @return 0 if a permit was taken, millis until one could be available, or -1 while the circuit is open
+     */
+    synchronized long acquireOrDelay() {
+        if (tryAcquire()) {
+            return 0;
+        }
+        long now = clock.getAsLong();
+        if (consecutiveFailures >= FAILURE_THRESHOLD && (now < openUntil || trialInFlight)) {
+            return -1;
+        }
+        if (now < blockedUntil) {
+            return blockedUntil - now;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerMs));
+    }
+
+    /**
+     * The service answered (including "not found")
+     */
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    /**
+     * Timeout, connection error or server error
+     */
+    synchronized void onFailure() {
+        trialInFlight = false;
+        consecutiveFailures++;
+        if (consecutiveFailures >= FAILURE_THRESHOLD) {
+            openUntil = clock.getAsLong() + OPEN_DURATION_MS;
+        }
+    }
+
+    /**
+     * The service asked us to back off (HTTP 429)
+     */
+    synchronized void onRateLimited(long retryAfterMs) {
+        trialInFlight = false;
+        blockedUntil = Math.max(blockedUntil, clock.getAsLong() + retryAfterMs);
+        tokens = 0;
+    }
+
+    /**
+     * How long a Retry-After header asks us to wait. It is either delta-seconds or an HTTP date.
+     *
+     * @param header the header value, or null if there was none
+     * @param now    epoch millis the response arrived at
+     */
+    static long parseRetryAfter(String header, long now) {
+        if (header != null) {
+            try {
+                return Math.max(0, Long.parseLong(header.trim())) * 1000;
+            } catch (NumberFormatException e) {
+                try {
+                    long until = ZonedDateTime.parse(header.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+                    return Math.max(0, until - now);
+                } catch (DateTimeParseException ignored) {
+                    // Fall through to the default
+                }
+            }
+        }
+        return DEFAULT_RETRY_AFTER_MS;
+    }
+}
@@ -7,15 +7,29 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.mojang.authlib.GameProfile;
 import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 
@@ -24,28 +38,217 @@ import java.util.logging.Level;
  */
 public class SkinFetcher {
 
-    private static final String MOJANG_SESSION_URL = "https://sessionserver.mojang.com/session/minecraft/profile/%s?unsigned=false";
+    private static final String DEFAULT_SESSION_SERVER_URL = "https://sessionserver.mojang.com/session/minecraft/profile/";
+
+    // Keeps connections to the session server alive between requests
+    private static final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+
+    // Replaced by configure() on enable and reload
+    private static volatile String sessionServerUrl = DEFAULT_SESSION_SERVER_URL;
+    private static volatile Duration requestTimeout = Duration.ofSeconds(5);
+    private static volatile RequestGate requestGate = new RequestGate(60, 10);
+    // Runs the blocking lookups, its size caps concurrent requests
+    private static volatile int fetchThreads = 4;
+    private static volatile ExecutorService fetchExecutor = newFetchExecutor(fetchThreads);
+    // Prefetches wait for the rate limit on this timer, so they don't hold request threads
+    private static final ScheduledExecutorService permitScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "HardcoreRevival-SkinPermits");
+        thread.setDaemon(true);
+        return thread;
+    });
     
-    // Cache skin data to avoid repeated API calls (Mojang rate limits)
-    private static final Map<UUID, CachedSkin> skinCache = new ConcurrentHashMap<>();
+    // Cache skin data to avoid repeated API calls (Mojang rate limits), least recently used dropped first
+    private static final int MAX_CACHE_SIZE = 1000;
+    private static final Map<UUID, CachedSkin> skinCache = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CachedSkin> eldest) {
+                return size() > MAX_CACHE_SIZE;
+            }
+        });
     private static final long CACHE_DURATION_MS = 30 * 60 * 1000; // 30 minutes
     private static final long FAILED_CACHE_DURATION_MS = 5 * 60 * 1000; // 5 minutes for failed attempts
 
+    // One request per UUID at a time, concurrent callers share it
+    private static final Map<UUID, CompletableFuture<SkinData>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Apply the skins section of the config (session server URL, request rate, timeout).
+     * The gate and the request threads are only replaced if their settings changed, and a
+     * new gate keeps an active Retry-After pause or open circuit.
+     */
+    public static void configure(ConfigurationSection config) {
+        String url = config.getString("skins.session-server-url", DEFAULT_SESSION_SERVER_URL);
+        sessionServerUrl = url.endsWith("/") ? url : url + "/";
+        requestTimeout = Duration.ofSeconds(Math.max(1, config.getInt("skins.timeout-seconds", 5)));
+
+        RequestGate gate = requestGate;
+        int requestsPerMinute = Math.max(1, config.getInt("skins.requests-per-minute", 60));
+        if (requestsPerMinute != gate.requestsPerMinute()) {
+            requestGate = gate.withRate(requestsPerMinute);
+        }
+
+        int threads = Math.max(1, config.getInt("skins.max-concurrent-requests", 4));
+        if (threads != fetchThreads || fetchExecutor.isShutdown()) {
+            // Queued lookups on the old executor still finish
+            ExecutorService previous = fetchExecutor;
+            fetchThreads = threads;
+            fetchExecutor = newFetchExecutor(threads);
+            previous.shutdown();
+        }
+    }
+
     /**
-     * Fetch skin data for a player UUID asynchronously
+     * Stop the lookup threads (plugin disable)
+     */
+    public static void shutdown() {
+        permitScheduler.shutdownNow();
+        fetchExecutor.shutdownNow();
+    }
+
+    private static ExecutorService newFetchExecutor(int threads) {
+        return Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "HardcoreRevival-Skins");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Resolve many skins at once, at most skins.max-concurrent-requests at a time.
+     * Lookups wait for the rate limit until the deadline instead of giving up right away;
+     * the waiting happens on a timer, so lookups for deaths and joins aren't queued behind them.
+     *
+     * @param deadline epoch millis after which pending lookups fall back without a request
+     * @return completes (never exceptionally) once every lookup finished; results are in the cache
+     */
+    public static CompletableFuture<Void> prefetch(JavaPlugin plugin, Collection<UUID> playerUuids, long deadline) {
+        List<CompletableFuture<SkinData>> lookups = new ArrayList<>(playerUuids.size());
+        for (UUID playerUuid : playerUuids) {
+            lookups.add(fetchSkinShared(plugin, playerUuid, deadline));
+        }
+        return CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Fetch skin data for a player UUID on an async task, the callback runs on the main thread
      */
     public static void fetchSkinAsync(JavaPlugin plugin, UUID playerUuid, Consumer<SkinData> callback) {
-        CompletableFuture.runAsync(() -> {
-            SkinData skinData = fetchSkin(plugin, playerUuid);
-            Bukkit.getScheduler().runTask(plugin, () -> callback.accept(skinData));
+        fetchSkinShared(plugin, playerUuid).thenAccept(skinData -> {
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, () -> callback.accept(skinData));
+            }
         });
     }
 
     /**
-     * Fetch skin data synchronously with caching
+     * Skin from the cache, or the request for it. A UUID already being fetched joins that
+     * request instead of starting another one.
+     *
+     * @return completes on an async thread, never exceptionally
      */
-    public static SkinData fetchSkin(JavaPlugin plugin, UUID playerUuid) {
-        // Check cache first
+    public static CompletableFuture<SkinData> fetchSkinShared(JavaPlugin plugin, UUID playerUuid) {
+        return fetchSkinShared(plugin, playerUuid, 0);
+    }
+
+    private static CompletableFuture<SkinData> fetchSkinShared(JavaPlugin plugin, UUID playerUuid, long permitDeadline) {
+        CachedSkin cached = skinCache.get(playerUuid);
+        if (cached != null && !cached.isExpired()) {
+            return CompletableFuture.completedFuture(cached.skinData);
+        }
+
+        CompletableFuture<SkinData> request = new CompletableFuture<>();
+        CompletableFuture<SkinData> existing = inFlight.putIfAbsent(playerUuid, request);
+        if (existing != null) {
+            return existing;
+        }
+        // Offline-mode UUIDs never need a permit
+        if (permitDeadline > 0 && playerUuid.version() != 3) {
+            awaitPermit(permitDeadline).thenAccept(granted -> {
+                if (granted) {
+                    runLookup(plugin, playerUuid, request, true);
+                } else {
+                    // No permit before the deadline (or Mojang is down) - fall back without a request
+                    inFlight.remove(playerUuid, request);
+                    request.complete(getLastKnownSkin(playerUuid));
+                }
+            });
+        } else {
+            runLookup(plugin, playerUuid, request, false);
+        }
+        return request;
+    }
+
+    private static void runLookup(JavaPlugin plugin, UUID playerUuid, CompletableFuture<SkinData> request,
+                                  boolean permitHeld) {
+        try {
+            fetchExecutor.execute(() -> {
+                try {
+                    request.complete(loadSkin(plugin, playerUuid, permitHeld));
+                } catch (Throwable t) {
+                    request.complete(null);
+                } finally {
+                    inFlight.remove(playerUuid, request);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            inFlight.remove(playerUuid, request);
+            request.complete(getLastKnownSkin(playerUuid));
+        }
+    }
+
+    /**
+     * Completes with true once a request permit was taken, or false if none comes before the deadline
+     */
+    private static CompletableFuture<Boolean> awaitPermit(long deadline) {
+        CompletableFuture<Boolean> permit = new CompletableFuture<>();
+        pollPermit(permit, deadline);
+        return permit;
+    }
+
+    private static void pollPermit(CompletableFuture<Boolean> permit, long deadline) {
+        long delay = requestGate.acquireOrDelay();
+        if (delay == 0) {
+            permit.complete(true);
+            return;
+        }
+        if (delay < 0 || System.currentTimeMillis() + delay > deadline) {
+            permit.complete(false);
+            return;
+        }
+        try {
+            permitScheduler.schedule(() -> pollPermit(permit, deadline), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            permit.complete(false);
+        }
+    }
+
+    /**
+     * Skin from the cache without touching the network, expired entries included
+     *
+     * @return null if no skin was ever fetched for this player
+     */
+    public static SkinData getLastKnownSkin(UUID playerUuid) {
+        CachedSkin cached = skinCache.get(playerUuid);
+        return cached != null ? cached.skinData : null;
+    }
+
+    /**
+     * Whether the cache holds an unexpired result (skin or failure) for this player
+     */
+    public static boolean isCached(UUID playerUuid) {
+        CachedSkin cached = skinCache.get(playerUuid);
+        return cached != null && !cached.isExpired();
+    }
+
+    /**
+     * @param permitHeld a request permit was already taken for this lookup
+     */
+    private static SkinData loadSkin(JavaPlugin plugin, UUID playerUuid, boolean permitHeld) throws InterruptedException {
+        // Check cache again, a request that just finished may have filled it
         CachedSkin cached = skinCache.get(playerUuid);
         if (cached != null && !cached.isExpired()) {
             if (cached.skinData != null) {
@@ -55,85 +258,101 @@ public class SkinFetcher {
         }
         
         // Fetch from Mojang API
-        SkinData skinData = fetchFromMojang(plugin, playerUuid);
-        
-        // Cache the result (even if null, to avoid repeated failed requests)
-        long expiry = System.currentTimeMillis() + (skinData != null ? CACHE_DURATION_MS : FAILED_CACHE_DURATION_MS);
-        skinCache.put(playerUuid, new CachedSkin(skinData, expiry));
-        
-        return skinData;
+        MojangResult result = fetchFromMojang(plugin, playerUuid, permitHeld);
+        if (result.skinData() != null) {
+            skinCache.put(playerUuid, new CachedSkin(result.skinData(), System.currentTimeMillis() + CACHE_DURATION_MS));
+            return result.skinData();
+        }
+
+        // Remember "no skin" answers to avoid repeated requests, keeping the last known skin.
+        // Outages aren't remembered - the gate already keeps them cheap and we retry once it reopens.
+        SkinData lastKnown = cached != null ? cached.skinData : null;
+        if (result.answered()) {
+            skinCache.put(playerUuid, new CachedSkin(lastKnown, System.currentTimeMillis() + FAILED_CACHE_DURATION_MS));
+        }
+        return lastKnown;
     }
     
     /**
      * Fetch skin from Mojang API (internal, no caching)
      */
-    private static SkinData fetchFromMojang(JavaPlugin plugin, UUID playerUuid) {
+    private static MojangResult fetchFromMojang(JavaPlugin plugin, UUID playerUuid, boolean permitHeld)
+            throws InterruptedException {
         // Check if this looks like an offline-mode UUID (version 3)
         // Online UUIDs are version 4, offline are version 3
         if (playerUuid.version() == 3) {
             plugin.getLogger().fine("UUID " + playerUuid + " appears to be offline-mode - skipping Mojang API");
-            return null;
+            return MojangResult.NO_SKIN;
+        }
+
+        // Rate limited, told to back off, or Mojang is down - fall back right away
+        RequestGate gate = requestGate;
+        if (!permitHeld && !gate.tryAcquire()) {
+            plugin.getLogger().fine("Mojang API unavailable - skipping skin fetch for " + playerUuid);
+            return MojangResult.UNAVAILABLE;
         }
         
         try {
             String uuidString = playerUuid.toString().replace("-", "");
-            URL url = new URL(String.format(MOJANG_SESSION_URL, uuidString));
-            
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(10000); // Increased timeout
-            connection.setReadTimeout(10000);
-            connection.setRequestProperty("User-Agent", "HardcoreRevival-Plugin/1.0");
-            connection.setRequestProperty("Accept", "application/json");
+            HttpRequest request = HttpRequest.newBuilder(URI.create(sessionServerUrl + uuidString + "?unsigned=false"))
+                .timeout(requestTimeout)
+                .header("User-Agent", "HardcoreRevival-Plugin/1.0")
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
             
-            int responseCode = connection.getResponseCode();
+            int responseCode = response.statusCode();
             if (responseCode == 429) {
-                plugin.getLogger().warning("Mojang API rate limited - skin fetch failed for " + playerUuid);
-                return null;
+                long retryAfterMs = RequestGate.parseRetryAfter(
+                    response.headers().firstValue("Retry-After").orElse(null), System.currentTimeMillis());
+                gate.onRateLimited(retryAfterMs);
+                plugin.getLogger().warning("Mojang API rate limited - pausing skin fetches for " + (retryAfterMs / 1000) + "s");
+                return MojangResult.UNAVAILABLE;
             }
+            if (responseCode >= 500) {
+                gate.onFailure();
+                plugin.getLogger().warning("Mojang API returned HTTP " + responseCode + " for UUID " + playerUuid);
+                return MojangResult.UNAVAILABLE;
+            }
+            gate.onSuccess();
             if (responseCode == 204 || responseCode == 404) {
                 plugin.getLogger().fine("Player not found in Mojang database: " + playerUuid);
-                return null;
+                return MojangResult.NO_SKIN;
             }
             if (responseCode != 200) {
                 plugin.getLogger().warning("Mojang API returned HTTP " + responseCode + " for UUID " + playerUuid);
-                return null;
+                return MojangResult.NO_SKIN;
             }
             
-            try (InputStreamReader reader = new InputStreamReader(connection.getInputStream())) {
-                JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
-                
-                if (!json.has("properties")) {
-                    plugin.getLogger().fine("No properties in Mojang response for " + playerUuid);
-                    return null;
-                }
-                
-                JsonArray properties = json.getAsJsonArray("properties");
-                for (int i = 0; i < properties.size(); i++) {
-                    JsonObject property = properties.get(i).getAsJsonObject();
-                    if ("textures".equals(property.get("name").getAsString())) {
-                        String value = property.get("value").getAsString();
-                        String signature = property.has("signature") ? property.get("signature").getAsString() : null;
-                        plugin.getLogger().info("Successfully fetched skin from Mojang for " + playerUuid);
-                        return new SkinData(value, signature);
-                    }
+            JsonObject json = JsonParser.parseString(response.body()).getAsJsonObject();
+            if (!json.has("properties")) {
+                plugin.getLogger().fine("No properties in Mojang response for " + playerUuid);
+                return MojangResult.NO_SKIN;
+            }
+            
+            JsonArray properties = json.getAsJsonArray("properties");
+            for (int i = 0; i < properties.size(); i++) {
+                JsonObject property = properties.get(i).getAsJsonObject();
+                if ("textures".equals(property.get("name").getAsString())) {
+                    String value = property.get("value").getAsString();
+                    String signature = property.has("signature") ? property.get("signature").getAsString() : null;
+                    plugin.getLogger().info("Successfully fetched skin from Mojang for " + playerUuid);
+                    return new MojangResult(new SkinData(value, signature), true);
                 }
             }
-        } catch (java.net.SocketTimeoutException e) {
+            return MojangResult.NO_SKIN;
+        } catch (HttpTimeoutException e) {
+            gate.onFailure();
             plugin.getLogger().warning("Mojang API timeout for " + playerUuid);
+        } catch (InterruptedException e) {
+            throw e;
         } catch (Exception e) {
+            gate.onFailure();
             plugin.getLogger().warning("Failed to fetch skin from Mojang for " + playerUuid + ": " + e.getClass().getName() + " - " + e.getMessage());
-            e.printStackTrace();
         }
         
-        return null;
-    }
-    
-    /**
-     * Clear the skin cache (useful for plugin reload)
-     */
-    public static void clearCache() {
-        skinCache.clear();
+        return MojangResult.UNAVAILABLE;
     }
 
     /**
@@ -182,6 +401,16 @@ public class SkinFetcher {
         }
     }
     
+    /**
+     * Outcome of one Mojang lookup
+     *
+     * @param answered false if Mojang couldn't be asked or didn't answer properly (retry later)
+     */
+    private record MojangResult(SkinData skinData, boolean answered) {
+        static final MojangResult NO_SKIN = new MojangResult(null, true);
+        static final MojangResult UNAVAILABLE = new MojangResult(null, false);
+    }
+
     /**
      * Internal class to hold cached skin data with expiry
      */
@@ -0,0 +1,102 @@
+package com.bun.hardcorerevival.util;
+
+import com.bun.hardcorerevival.storage.AtomicFiles;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Disk-backed cache of player skins (skins.json), so corpses can be respawned after a
+ * restart without asking Mojang. Skins are captured whenever a player's textures are
+ * available locally (join, quit, death) or were fetched.
+ *
+ * Thread-safe; {@link #save()} only writes when something changed.
+ */
+public class SkinStore {
+
+    private static final Type SKIN_MAP_TYPE = new TypeToken<HashMap<UUID, SkinFetcher.SkinData>>(){}.getType();
+
+    private final Path file;
+    private final Logger logger;
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private final Map<UUID, SkinFetcher.SkinData> skins = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    public SkinStore(Path file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    /**
+     * Read the file, if there is one
+     */
+    public void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Map<UUID, SkinFetcher.SkinData> loaded = gson.fromJson(reader, SKIN_MAP_TYPE);
+            if (loaded != null) {
+                loaded.values().removeIf(skin -> skin == null || !skin.isValid());
+                skins.putAll(loaded);
+            }
+        } catch (Exception e) {
+            logger.warning("Failed to read " + file.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    public SkinFetcher.SkinData get(UUID playerUuid) {
+        return skins.get(playerUuid);
+    }
+
+    /**
+     * Remember a player's skin. Invalid skins are ignored.
+     */
+    public void put(UUID playerUuid, SkinFetcher.SkinData skin) {
+        if (skin == null || !skin.isValid()) {
+            return;
+        }
+        SkinFetcher.SkinData previous = skins.put(playerUuid, skin);
+        if (previous == null || !Objects.equals(previous.value(), skin.value())
+            || !Objects.equals(previous.signature(), skin.signature())) {
+            dirty.set(true);
+        }
+    }
+
+    /**
+     * Write the file if anything changed since the last save
+     */
+    public void save() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        Map<UUID, SkinFetcher.SkinData> data = new HashMap<>(skins);
+        try {
+            AtomicFiles.write(file, out -> {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                gson.toJson(data, SKIN_MAP_TYPE, writer);
+                writer.flush();
+            });
+        } catch (IOException e) {
+            dirty.set(true);
+            logger.warning("Failed to save " + file.getFileName() + ": " + e.getMessage());
+        }
+    }
+}
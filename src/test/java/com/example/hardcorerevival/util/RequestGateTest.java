@@ -0,0 +1,156 @@
+package com.bun.hardcorerevival.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestGateTest {
+
+    private long now = 1_000_000;
+
+    private RequestGate gate(int requestsPerMinute, int burst) {
+        return new RequestGate(requestsPerMinute, burst, () -> now);
+    }
+
+    @Test
+    void tokenBucketAllowsBurstThenRefillsAtRate() {
+        RequestGate gate = gate(60, 2);
+
+        assertTrue(gate.tryAcquire());
+        assertTrue(gate.tryAcquire());
+        assertFalse(gate.tryAcquire());
+        assertEquals(1000, gate.acquireOrDelay());
+
+        now += 999;
+        assertFalse(gate.tryAcquire());
+        now += 1;
+        assertTrue(gate.tryAcquire());
+    }
+
+    @Test
+    void tokensNeverExceedBurst() {
+        RequestGate gate = gate(60, 2);
+
+        now += 60_000;
+        assertTrue(gate.tryAcquire());
+        assertTrue(gate.tryAcquire());
+        assertFalse(gate.tryAcquire());
+    }
+
+    @Test
+    void retryAfterPausesUntilItPasses() {
+        RequestGate gate = gate(60, 10);
+
+        gate.onRateLimited(5000);
+        assertFalse(gate.tryAcquire());
+        assertEquals(5000, gate.acquireOrDelay());
+
+        now += 4999;
+        assertFalse(gate.tryAcquire());
+        now += 1;
+        assertTrue(gate.tryAcquire());
+    }
+
+    @Test
+    void shorterRetryAfterDoesNotShortenPause() {
+        RequestGate gate = gate(60, 10);
+
+        gate.onRateLimited(10_000);
+        gate.onRateLimited(1000);
+        now += 5000;
+        assertFalse(gate.tryAcquire());
+    }
+
+    @Test
+    void circuitOpensAfterRepeatedFailures() {
+        RequestGate gate = gate(60, 10);
+
+        for (int i = 0; i < RequestGate.FAILURE_THRESHOLD - 1; i++) {
+            gate.onFailure();
+        }
+        assertTrue(gate.tryAcquire());
+
+        gate.onFailure();
+        assertFalse(gate.tryAcquire());
+        assertEquals(-1, gate.acquireOrDelay());
+    }
+
+    @Test
+    void halfOpenCircuitLetsOneTrialThrough() {
+        RequestGate gate = gate(60, 10);
+        for (int i = 0; i < RequestGate.FAILURE_THRESHOLD; i++) {
+            gate.onFailure();
+        }
+
+        now += RequestGate.OPEN_DURATION_MS;
+        assertTrue(gate.tryAcquire());
+        // Only one trial while it is in flight
+        assertFalse(gate.tryAcquire());
+        assertEquals(-1, gate.acquireOrDelay());
+
+        gate.onSuccess();
+        assertTrue(gate.tryAcquire());
+        assertTrue(gate.tryAcquire());
+    }
+
+    @Test
+    void failedTrialReopensCircuit() {
+        RequestGate gate = gate(60, 10);
+        for (int i = 0; i < RequestGate.FAILURE_THRESHOLD; i++) {
+            gate.onFailure();
+        }
+
+        now += RequestGate.OPEN_DURATION_MS;
+        assertTrue(gate.tryAcquire());
+        gate.onFailure();
+
+        now += RequestGate.OPEN_DURATION_MS - 1;
+        assertFalse(gate.tryAcquire());
+        now += 1;
+        assertTrue(gate.tryAcquire());
+    }
+
+    @Test
+    void newRateKeepsBackoff() {
+        RequestGate gate = gate(60, 10);
+        gate.onRateLimited(5000);
+        for (int i = 0; i < RequestGate.FAILURE_THRESHOLD; i++) {
+            gate.onFailure();
+        }
+
+        RequestGate replaced = gate.withRate(120);
+        assertEquals(120, replaced.requestsPerMinute());
+        now += 5000;
+        assertFalse(replaced.tryAcquire());
+        now += RequestGate.OPEN_DURATION_MS;
+        assertTrue(replaced.tryAcquire());
+    }
+
+    @Test
+    void retryAfterInSeconds() {
+        assertEquals(120_000, RequestGate.parseRetryAfter("120", now));
+        assertEquals(3000, RequestGate.parseRetryAfter(" 3 ", now));
+        assertEquals(0, RequestGate.parseRetryAfter("-5", now));
+    }
+
+    @Test
+    void retryAfterAsHttpDate() {
+        ZonedDateTime date = ZonedDateTime.parse("Wed, 21 Oct 2015 07:28:00 GMT", DateTimeFormatter.RFC_1123_DATE_TIME);
+        long arrived = date.toInstant().toEpochMilli() - 30_000;
+
+        assertEquals(30_000, RequestGate.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT", arrived));
+        // A date in the past means retry now
+        assertEquals(0, RequestGate.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT", arrived + 60_000));
+    }
+
+    @Test
+    void missingOrInvalidRetryAfterUsesDefault() {
+        assertEquals(RequestGate.DEFAULT_RETRY_AFTER_MS, RequestGate.parseRetryAfter(null, now));
+        assertEquals(RequestGate.DEFAULT_RETRY_AFTER_MS, RequestGate.parseRetryAfter("soon", now));
+    }
+}